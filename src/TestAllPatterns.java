@@ -35,17 +35,16 @@ public class TestAllPatterns {
 
 // ================== Singleton ==================
 class Singleton {
-    private static Singleton instance;
+    private static class Holder {
+        static final Singleton INSTANCE = new Singleton();
+    }
 
     private Singleton() {
         System.out.println("Singleton instance created.");
     }
 
     public static Singleton getInstance() {
-        if (instance == null) {
-            instance = new Singleton();
-        }
-        return instance;
+        return Holder.INSTANCE;
     }
 
     public void sayHello() {
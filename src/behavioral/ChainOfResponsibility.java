@@ -16,6 +16,25 @@
  * - Handlers are chained together
  */
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
 // Handler interface
 abstract class Handler {
     protected Handler next;
@@ -24,38 +43,569 @@ abstract class Handler {
         this.next = next;
     }
 
-    public abstract void handleRequest(String request);
-}
-
-// Concrete handlers
-class LowLevelSupport extends Handler {
+    // Handle the request here if it matches, otherwise pass it along
     public void handleRequest(String request) {
-        if (request.equals("password reset")) {
-            System.out.println("Low-level support handled: " + request);
+        if (matches(request)) {
+            handle(request);
         } else if (next != null) {
             next.handleRequest(request);
+        } else {
+            unhandled(request);
         }
     }
+
+    // Exact requests this handler takes — lets ChainCompiler route them with one hash lookup
+    public Set<String> matchKeys() {
+        return Set.of();
+    }
+
+    // Override for custom matching logic (such handlers are checked one by one)
+    public boolean matches(String request) {
+        return matchKeys().contains(request);
+    }
+
+    protected abstract void handle(String request);
+
+    // Called on the last handler when nobody took the request
+    protected void unhandled(String request) {
+        System.out.println("Request unhandled: " + request);
+    }
+}
+
+// Concrete handlers
+class LowLevelSupport extends Handler {
+    public Set<String> matchKeys() {
+        return Set.of("password reset");
+    }
+
+    protected void handle(String request) {
+        System.out.println("Low-level support handled: " + request);
+    }
 }
 
 class MidLevelSupport extends Handler {
+    public Set<String> matchKeys() {
+        return Set.of("software install");
+    }
+
+    protected void handle(String request) {
+        System.out.println("Mid-level support handled: " + request);
+    }
+}
+
+class HighLevelSupport extends Handler {
+    public Set<String> matchKeys() {
+        return Set.of("server crash");
+    }
+
+    protected void handle(String request) {
+        System.out.println("High-level support handled: " + request);
+    }
+}
+
+/**
+ * 🗺️ CompiledChain
+ *
+ * A handler chain turned into a routing table — same results as walking the chain:
+ * - handlers with match keys go into a hash map: key → first handler in the chain with that key
+ * - handlers with custom matches() logic are kept in chain order and only checked if they
+ *   come before the hash hit, so precedence is preserved
+ * - a handler that overrides handleRequest() itself can't be looked inside; routing stops
+ *   there and hands the request to it, exactly like the linked chain would
+ */
+class CompiledChain {
+    private final Map<String, Integer> byKey;
+    private final Handler[] handlers;          // chain order, up to the first opaque handler
+    private final int[] predicateIndexes;      // positions of custom-matching handlers, ascending
+    private final Handler opaqueTail;          // null if the whole chain was compiled
+    private final Handler last;
+
+    CompiledChain(Map<String, Integer> byKey, Handler[] handlers, int[] predicateIndexes, Handler opaqueTail, Handler last) {
+        this.byKey = byKey;
+        this.handlers = handlers;
+        this.predicateIndexes = predicateIndexes;
+        this.opaqueTail = opaqueTail;
+        this.last = last;
+    }
+
     public void handleRequest(String request) {
-        if (request.equals("software install")) {
-            System.out.println("Mid-level support handled: " + request);
-        } else if (next != null) {
-            next.handleRequest(request);
+        Handler handler = route(request);
+        if (handler != null) {
+            handler.handle(request);
+        } else if (opaqueTail != null) {
+            opaqueTail.handleRequest(request);
+        } else if (last != null) {
+            last.unhandled(request);
         }
     }
+
+    // The handler that would take the request, or null if none of the compiled ones would
+    public Handler route(String request) {
+        Integer keyed = byKey.get(request);
+        int limit = keyed == null ? Integer.MAX_VALUE : keyed;
+        for (int index : predicateIndexes) {
+            if (index >= limit) {
+                break;
+            }
+            if (handlers[index].matches(request)) {
+                return handlers[index];
+            }
+        }
+        return keyed == null ? null : handlers[keyed];
+    }
+
+    public int size() {
+        return handlers.length;
+    }
 }
 
-class HighLevelSupport extends Handler {
+// Turns a linked Handler chain into a CompiledChain
+class ChainCompiler {
+    // Per handler class: does it use the standard handleRequest()/matches() logic?
+    private static final ClassValue<Boolean> STANDARD_FORWARDING = new ClassValue<>() {
+        protected Boolean computeValue(Class<?> type) {
+            try {
+                return type.getMethod("handleRequest", String.class).getDeclaringClass() == Handler.class;
+            } catch (NoSuchMethodException e) {
+                return false;
+            }
+        }
+    };
+
+    private static final ClassValue<Boolean> KEYS_ONLY = new ClassValue<>() {
+        protected Boolean computeValue(Class<?> type) {
+            try {
+                return type.getMethod("matches", String.class).getDeclaringClass() == Handler.class;
+            } catch (NoSuchMethodException e) {
+                return false;
+            }
+        }
+    };
+
+    public static CompiledChain compile(Handler head) {
+        Map<String, Integer> byKey = new HashMap<>();
+        List<Handler> handlers = new ArrayList<>();
+        List<Integer> predicates = new ArrayList<>();
+        Handler last = null;
+        Handler current = head;
+        while (current != null && forwardsNormally(current)) {
+            int index = handlers.size();
+            handlers.add(current);
+            if (matchesByKeys(current)) {
+                for (String key : current.matchKeys()) {
+                    byKey.putIfAbsent(key, index);  // earlier handlers win, like in the chain
+                }
+            } else {
+                predicates.add(index);
+            }
+            last = current;
+            current = current.next;
+        }
+        int[] predicateIndexes = predicates.stream().mapToInt(Integer::intValue).toArray();
+        return new CompiledChain(byKey, handlers.toArray(new Handler[0]), predicateIndexes, current, last);
+    }
+
+    // false if the handler overrides handleRequest() and so can't be routed around
+    static boolean forwardsNormally(Handler handler) {
+        return STANDARD_FORWARDING.get(handler.getClass());
+    }
+
+    // true if matches() is exactly "request is one of matchKeys()"
+    static boolean matchesByKeys(Handler handler) {
+        return KEYS_ONLY.get(handler.getClass());
+    }
+}
+
+/**
+ * 📊 HandlerStats
+ *
+ * Hit count and handle() latency for one handler:
+ * - LongAdder counters, so concurrent requests don't fight over one cache line
+ * - latency histogram with power-of-two nanosecond buckets
+ */
+class HandlerStats {
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAdder[] buckets = new LongAdder[64];
+
+    HandlerStats() {
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    void record(long nanos) {
+        hits.increment();
+        totalNanos.add(nanos);
+        buckets[64 - Long.numberOfLeadingZeros(Math.max(nanos, 1)) - 1].increment();
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public double meanNanos() {
+        long count = hits.sum();
+        return count == 0 ? 0 : (double) totalNanos.sum() / count;
+    }
+
+    // Upper bound of the bucket holding the given quantile (0..1)
+    public long percentileNanos(double quantile) {
+        long[] counts = new long[buckets.length];
+        long total = 0;
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = buckets[i].sum();
+            total += counts[i];
+        }
+        long rank = (long) Math.ceil(quantile * total);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= Math.max(rank, 1)) {
+                return i == 63 ? Long.MAX_VALUE : (1L << (i + 1)) - 1;
+            }
+        }
+        return 0;
+    }
+}
+
+/**
+ * 🏃 ChainRunner
+ *
+ * Runs a handler chain with a loop instead of recursive next.handleRequest() calls:
+ * - no StackOverflowError however long the chain gets
+ * - per-handler hit counts and latency histograms (HandlerStats)
+ * - adaptive mode: every ~reorderEvery requests, handlers whose match keys don't overlap
+ *   with their neighbours are moved so the most-hit ones are checked first
+ * - handlers with custom matches() logic never move, and nothing moves across them,
+ *   so every request still reaches the same handler as in the linked chain
+ * - a handler that overrides handleRequest() ends the loop and gets the request itself
+ */
+class ChainRunner {
+    private final Handler[] handlers;       // chain order
+    private final HandlerStats[] stats;
+    private final boolean[] movable;
+    private final Handler opaqueTail;
+    private final Handler last;
+    private final int reorderEvery;
+    private final AtomicBoolean reordering = new AtomicBoolean();
+    private final LongAdder unhandled = new LongAdder();
+    private volatile int[] order;           // indexes into handlers, in checking order
+
+    public ChainRunner(Handler head) {
+        this(head, 0);
+    }
+
+    // reorderEvery = 0 keeps the chain order fixed
+    public ChainRunner(Handler head, int reorderEvery) {
+        if (reorderEvery < 0) {
+            throw new IllegalArgumentException("reorderEvery must be >= 0");
+        }
+        List<Handler> list = new ArrayList<>();
+        Handler current = head;
+        Handler tail = null;
+        while (current != null && ChainCompiler.forwardsNormally(current)) {
+            list.add(current);
+            tail = current;
+            current = current.next;
+        }
+        this.handlers = list.toArray(new Handler[0]);
+        this.opaqueTail = current;
+        this.last = tail;
+        this.reorderEvery = reorderEvery;
+        this.stats = new HandlerStats[handlers.length];
+        for (int i = 0; i < stats.length; i++) {
+            stats[i] = new HandlerStats();
+        }
+        this.movable = findMovable(handlers);
+        int[] initial = new int[handlers.length];
+        for (int i = 0; i < initial.length; i++) {
+            initial[i] = i;
+        }
+        this.order = initial;
+    }
+
+    // Keyed handlers whose keys are unique between two custom-matching handlers
+    private static boolean[] findMovable(Handler[] handlers) {
+        boolean[] movable = new boolean[handlers.length];
+        int start = 0;
+        while (start < handlers.length) {
+            int end = start;
+            Map<String, Integer> keyCounts = new HashMap<>();
+            while (end < handlers.length && ChainCompiler.matchesByKeys(handlers[end])) {
+                for (String key : handlers[end].matchKeys()) {
+                    keyCounts.merge(key, 1, Integer::sum);
+                }
+                end++;
+            }
+            for (int i = start; i < end; i++) {
+                boolean unique = true;
+                for (String key : handlers[i].matchKeys()) {
+                    unique &= keyCounts.get(key) == 1;
+                }
+                movable[i] = unique;
+            }
+            start = end + 1;  // skip the custom-matching barrier
+        }
+        return movable;
+    }
+
     public void handleRequest(String request) {
-        if (request.equals("server crash")) {
-            System.out.println("High-level support handled: " + request);
+        int[] order = this.order;
+        for (int index : order) {
+            Handler handler = handlers[index];
+            if (handler.matches(request)) {
+                long start = System.nanoTime();
+                handler.handle(request);
+                stats[index].record(System.nanoTime() - start);
+                maybeReorder();
+                return;
+            }
+        }
+        if (opaqueTail != null) {
+            opaqueTail.handleRequest(request);
         } else {
-            System.out.println("Request unhandled: " + request);
+            unhandled.increment();
+            if (last != null) {
+                last.unhandled(request);
+            }
         }
     }
+
+    private void maybeReorder() {
+        if (reorderEvery > 0 && ThreadLocalRandom.current().nextInt(reorderEvery) == 0) {
+            reorder();
+        }
+    }
+
+    // Sort each run of movable handlers by hits, most-hit first
+    public void reorder() {
+        if (!reordering.compareAndSet(false, true)) {
+            return;  // someone else is already on it
+        }
+        try {
+            int[] next = order.clone();
+            long[] hits = new long[handlers.length];
+            for (int i = 0; i < hits.length; i++) {
+                hits[i] = stats[i].hits();
+            }
+            int start = 0;
+            while (start < next.length) {
+                if (!movable[next[start]]) {
+                    start++;
+                    continue;
+                }
+                int end = start;
+                while (end < next.length && movable[next[end]]) {
+                    end++;
+                }
+                Integer[] run = new Integer[end - start];
+                for (int i = 0; i < run.length; i++) {
+                    run[i] = next[start + i];
+                }
+                Arrays.sort(run, (a, b) -> Long.compare(hits[b], hits[a]));
+                for (int i = 0; i < run.length; i++) {
+                    next[start + i] = run[i];
+                }
+                start = end;
+            }
+            order = next;
+        } finally {
+            reordering.set(false);
+        }
+    }
+
+    public HandlerStats statsFor(Handler handler) {
+        for (int i = 0; i < handlers.length; i++) {
+            if (handlers[i] == handler) {
+                return stats[i];
+            }
+        }
+        throw new IllegalArgumentException("Handler is not part of this chain");
+    }
+
+    public long unhandledCount() {
+        return unhandled.sum();
+    }
+
+    // Handlers in the order they are currently checked
+    public List<Handler> currentOrder() {
+        List<Handler> result = new ArrayList<>();
+        for (int index : order) {
+            result.add(handlers[index]);
+        }
+        return result;
+    }
+
+    public void printStats() {
+        for (int index : order) {
+            HandlerStats s = stats[index];
+            System.out.printf("%-20s hits=%d mean=%.0fns p99<=%dns%n", handlers[index].getClass().getSimpleName(),
+                    s.hits(), s.meanNanos(), s.percentileNanos(0.99));
+        }
+        System.out.println("unhandled=" + unhandled.sum());
+    }
+}
+
+/**
+ * ⚡ AsyncHandler
+ *
+ * Non-blocking variant of Handler for handlers that call slow backends:
+ * - tryHandle() returns a future: a result, or null to pass the request on
+ * - if the handler doesn't answer within its timeout, the request escalates to next; that
+ *   escalation runs on the handler's executor, never on the JDK's single timeout thread
+ * - the final future holds the result text, or "Request unhandled: ..." at the end of the chain
+ * - handleAll() pushes a whole batch through the chain (see AsyncBatch)
+ */
+abstract class AsyncHandler {
+    protected AsyncHandler next;
+    private final long timeoutMillis;
+    private final Executor executor;
+    private final LongAdder timeouts = new LongAdder();
+
+    // timeoutMillis = 0 waits as long as the handler takes; executor runs escalations after a timeout
+    protected AsyncHandler(long timeoutMillis, Executor executor) {
+        if (timeoutMillis < 0) {
+            throw new IllegalArgumentException("timeoutMillis must be >= 0");
+        }
+        this.timeoutMillis = timeoutMillis;
+        this.executor = Objects.requireNonNull(executor, "executor");
+    }
+
+    public void setNext(AsyncHandler next) {
+        this.next = next;
+    }
+
+    protected abstract CompletableFuture<String> tryHandle(String request);
+
+    public CompletableFuture<String> handleRequest(String request) {
+        CompletableFuture<String> attempt;
+        try {
+            attempt = tryHandle(request).copy();  // our timeout must not complete the handler's own future
+        } catch (RuntimeException e) {
+            attempt = CompletableFuture.failedFuture(e);
+        }
+        if (timeoutMillis > 0) {
+            attempt.orTimeout(timeoutMillis, TimeUnit.MILLISECONDS);
+        }
+        return attempt.handle((result, error) -> {
+            if (error == null && result != null) {
+                return CompletableFuture.completedFuture(result);
+            }
+            if (error != null) {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                if (!(cause instanceof TimeoutException)) {
+                    return CompletableFuture.<String>failedFuture(cause);
+                }
+                timeouts.increment();
+                // We're on the timeout scheduler's only thread: hand the rest of the chain off
+                return CompletableFuture.supplyAsync(() -> escalate(request), executor).thenCompose(future -> future);
+            }
+            return escalate(request);
+        }).thenCompose(future -> future);
+    }
+
+    private CompletableFuture<String> escalate(String request) {
+        return next != null
+                ? next.handleRequest(request)
+                : CompletableFuture.completedFuture("Request unhandled: " + request);
+    }
+
+    public CompletableFuture<String[]> handleAll(String[] requests, int maxInFlight) {
+        return new AsyncBatch(this, requests, maxInFlight).start();
+    }
+
+    public long timeouts() {
+        return timeouts.sum();
+    }
+}
+
+// Support tier backed by a simulated remote call that answers after latencyMillis
+class AsyncSupport extends AsyncHandler {
+    private final String tier;
+    private final Set<String> keys;
+    private final Executor backend;
+
+    AsyncSupport(String tier, Set<String> keys, long latencyMillis, long timeoutMillis, Executor executor) {
+        super(timeoutMillis, executor);
+        this.tier = tier;
+        this.keys = keys;
+        this.backend = latencyMillis > 0 ? CompletableFuture.delayedExecutor(latencyMillis, TimeUnit.MILLISECONDS, executor) : executor;
+    }
+
+    protected CompletableFuture<String> tryHandle(String request) {
+        if (!keys.contains(request)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return CompletableFuture.supplyAsync(() -> tier + " support handled: " + request, backend);
+    }
+}
+
+/**
+ * 📦 AsyncBatch
+ *
+ * Runs an array of requests through an AsyncHandler chain:
+ * - up to maxInFlight requests are in the chain at once, each moving through the tiers
+ *   on its own, so a slow tier only delays the requests that reach it
+ * - as one finishes the next is started; results come back in request order
+ * - the first failure fails the whole batch
+ */
+class AsyncBatch {
+    private final AsyncHandler head;
+    private final String[] requests;
+    private final String[] results;
+    private final int maxInFlight;
+    private final CompletableFuture<String[]> done = new CompletableFuture<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger remaining;
+    private final AtomicInteger wip = new AtomicInteger();
+    private int nextIndex;  // only touched by the thread that owns wip
+
+    AsyncBatch(AsyncHandler head, String[] requests, int maxInFlight) {
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("maxInFlight must be > 0");
+        }
+        this.head = head;
+        this.requests = requests.clone();
+        this.results = new String[requests.length];
+        this.maxInFlight = maxInFlight;
+        this.remaining = new AtomicInteger(requests.length);
+    }
+
+    CompletableFuture<String[]> start() {
+        if (requests.length == 0) {
+            done.complete(results);
+        } else {
+            pump();
+        }
+        return done;
+    }
+
+    // Drain loop instead of recursion, so handlers that finish synchronously can't grow the stack
+    private void pump() {
+        if (wip.getAndIncrement() != 0) {
+            return;
+        }
+        do {
+            while (!done.isDone() && nextIndex < requests.length && inFlight.get() < maxInFlight) {
+                int index = nextIndex++;
+                inFlight.incrementAndGet();
+                head.handleRequest(requests[index]).whenComplete((result, error) -> {
+                    if (error != null) {
+                        done.completeExceptionally(error);
+                        return;
+                    }
+                    results[index] = result;
+                    inFlight.decrementAndGet();
+                    if (remaining.decrementAndGet() == 0) {
+                        done.complete(results);
+                    } else {
+                        pump();
+                    }
+                });
+            }
+        } while (wip.decrementAndGet() != 0);
+    }
 }
 
 // Client
@@ -72,5 +622,210 @@ public class ChainOfResponsibility {
         low.handleRequest("software install");
         low.handleRequest("server crash");
         low.handleRequest("alien invasion");
+
+        // Same chain, compiled into a routing table
+        CompiledChain compiled = ChainCompiler.compile(low);
+        compiled.handleRequest("software install");
+        compiled.handleRequest("alien invasion");
+
+        // Iterative runner that counts hits and moves busy handlers forward
+        ChainRunner runner = new ChainRunner(low, 4);
+        for (int i = 0; i < 3; i++) {
+            runner.handleRequest("server crash");
+        }
+        runner.handleRequest("password reset");
+        runner.reorder();
+        runner.printStats();
+
+        // Async tiers: mid-level is slower than its timeout, so its requests escalate
+        ExecutorService backend = Executors.newFixedThreadPool(2);
+        AsyncHandler asyncLow = new AsyncSupport("Low-level", Set.of("password reset"), 10, 100, backend);
+        AsyncHandler asyncMid = new AsyncSupport("Mid-level", Set.of("software install"), 200, 50, backend);
+        AsyncHandler asyncHigh = new AsyncSupport("High-level", Set.of("server crash", "software install"), 20, 0, backend);
+        asyncLow.setNext(asyncMid);
+        asyncMid.setNext(asyncHigh);
+        String[] batch = {"password reset", "software install", "server crash", "alien invasion"};
+        for (String result : asyncLow.handleAll(batch, 4).join()) {
+            System.out.println(result);
+        }
+        System.out.println("Mid-level timeouts: " + asyncMid.timeouts());
+        backend.shutdown();
+    }
+}
+
+/**
+ * ⏱️ ChainBenchmark
+ *
+ * Linked chain walk vs CompiledChain for growing chain lengths.
+ * Requests are spread over all handlers, plus some that nobody handles.
+ *
+ * Run: java ChainBenchmark [requests]
+ */
+class ChainBenchmark {
+    static final class QuietHandler extends Handler {
+        private final Set<String> keys;
+        long handled;
+
+        QuietHandler(String key) {
+            this.keys = Set.of(key);
+        }
+
+        public Set<String> matchKeys() {
+            return keys;
+        }
+
+        protected void handle(String request) {
+            handled++;
+        }
+
+        protected void unhandled(String request) {
+        }
+    }
+
+    public static void main(String[] args) {
+        int requests = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        for (int length : new int[] {3, 10, 100, 1000}) {
+            Handler head = null;
+            Handler tail = null;
+            String[] keys = new String[length + length / 4 + 1];
+            for (int i = 0; i < length; i++) {
+                keys[i] = "request-" + i;
+                Handler h = new QuietHandler(keys[i]);
+                if (head == null) {
+                    head = h;
+                } else {
+                    tail.setNext(h);
+                }
+                tail = h;
+            }
+            for (int i = length; i < keys.length; i++) {
+                keys[i] = "unknown-" + i;
+            }
+            CompiledChain compiled = ChainCompiler.compile(head);
+
+            int n = Math.max(10_000, requests / Math.max(1, length / 10));
+            for (int round = 0; round < 2; round++) {  // first round warms up the JIT
+                long start = System.nanoTime();
+                for (int i = 0; i < n; i++) {
+                    head.handleRequest(keys[i % keys.length]);
+                }
+                long linkedNs = System.nanoTime() - start;
+                start = System.nanoTime();
+                for (int i = 0; i < n; i++) {
+                    compiled.handleRequest(keys[i % keys.length]);
+                }
+                long compiledNs = System.nanoTime() - start;
+                if (round == 1) {
+                    System.out.printf("chain %4d: linked %8.1f ns/request   compiled %6.1f ns/request%n",
+                            length, (double) linkedNs / n, (double) compiledNs / n);
+                }
+            }
+        }
+    }
+}
+
+/**
+ * ⏱️ RunnerBenchmark
+ *
+ * Skewed traffic (most requests hit the end of the chain) through the recursive chain,
+ * a fixed ChainRunner and an adaptive ChainRunner, then a chain too long to recurse.
+ *
+ * Run: java RunnerBenchmark [requests]
+ */
+class RunnerBenchmark {
+    static Handler buildChain(int length) {
+        Handler head = new ChainBenchmark.QuietHandler("request-0");
+        Handler tail = head;
+        for (int i = 1; i < length; i++) {
+            Handler h = new ChainBenchmark.QuietHandler("request-" + i);
+            tail.setNext(h);
+            tail = h;
+        }
+        return head;
+    }
+
+    public static void main(String[] args) {
+        int requests = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        int length = 200;
+        Handler head = buildChain(length);
+        String[] traffic = new String[1024];
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < traffic.length; i++) {
+            // 90% of requests go to the last 5 handlers
+            int target = random.nextInt(10) < 9 ? length - 1 - random.nextInt(5) : random.nextInt(length);
+            traffic[i] = "request-" + target;
+        }
+        ChainRunner fixed = new ChainRunner(head);
+        ChainRunner adaptive = new ChainRunner(head, 1_000);
+
+        for (int round = 0; round < 2; round++) {  // first round warms up the JIT
+            long start = System.nanoTime();
+            for (int i = 0; i < requests; i++) {
+                head.handleRequest(traffic[i & 1023]);
+            }
+            long recursiveNs = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (int i = 0; i < requests; i++) {
+                fixed.handleRequest(traffic[i & 1023]);
+            }
+            long fixedNs = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (int i = 0; i < requests; i++) {
+                adaptive.handleRequest(traffic[i & 1023]);
+            }
+            long adaptiveNs = System.nanoTime() - start;
+            if (round == 1) {
+                System.out.printf("chain %d: recursive %.1f ns   runner %.1f ns   adaptive %.1f ns  (per request)%n",
+                        length, (double) recursiveNs / requests, (double) fixedNs / requests, (double) adaptiveNs / requests);
+            }
+        }
+
+        Handler longChain = buildChain(200_000);
+        try {
+            longChain.handleRequest("request-199999");
+            System.out.println("recursive chain of 200000: ok");
+        } catch (StackOverflowError e) {
+            System.out.println("recursive chain of 200000: StackOverflowError");
+        }
+        new ChainRunner(longChain).handleRequest("request-199999");
+        System.out.println("runner chain of 200000: ok");
+    }
+}
+
+/**
+ * ⏱️ AsyncChainBenchmark
+ *
+ * The same requests through tiers with simulated backend latency:
+ * one at a time (join each) vs handleAll() with a window of in-flight requests.
+ *
+ * Run: java AsyncChainBenchmark [requests] [maxInFlight]
+ */
+class AsyncChainBenchmark {
+    public static void main(String[] args) {
+        int requests = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int maxInFlight = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+        ExecutorService backend = Executors.newFixedThreadPool(2);
+        AsyncHandler low = new AsyncSupport("Low-level", Set.of("password reset"), 1, 0, backend);
+        AsyncHandler mid = new AsyncSupport("Mid-level", Set.of("software install"), 5, 0, backend);
+        AsyncHandler high = new AsyncSupport("High-level", Set.of("server crash"), 20, 0, backend);
+        low.setNext(mid);
+        mid.setNext(high);
+        String[] kinds = {"password reset", "software install", "server crash", "alien invasion"};
+        String[] batch = new String[requests];
+        for (int i = 0; i < requests; i++) {
+            batch[i] = kinds[i % kinds.length];
+        }
+
+        long start = System.nanoTime();
+        for (String request : batch) {
+            low.handleRequest(request).join();
+        }
+        long sequentialMs = (System.nanoTime() - start) / 1_000_000;
+        start = System.nanoTime();
+        low.handleAll(batch, maxInFlight).join();
+        long batchMs = (System.nanoTime() - start) / 1_000_000;
+        System.out.printf("%d requests: one at a time %d ms   handleAll(window %d) %d ms%n",
+                requests, sequentialMs, maxInFlight, batchMs);
+        backend.shutdown();
     }
 }
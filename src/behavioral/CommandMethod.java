@@ -15,24 +15,92 @@
  * - Decouples sender from receiver
  */
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.IntStream;
+
 // Command interface
 interface Command {
     void execute();
+
+    // Reverse the effect of execute()
+    default void undo() {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " can't be undone");
+    }
+
+    // Commands with the same (non-null) key supersede each other: only the latest in a batch runs
+    default Object coalescingKey() {
+        return null;
+    }
+
+    // The object this command acts on; commands for the same receiver must run in order
+    default Object receiver() {
+        return null;
+    }
+}
+
+// A command a CommandJournal can record: an opcode for what it does, plus the light it does it to
+interface JournaledCommand extends Command {
+    byte opcode();
+
+    // Opcode of the record an undo() writes; like undo(), unsupported unless overridden
+    default byte undoOpcode() {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " can't be undone");
+    }
+
+    Light getLight();
 }
 
 // Receiver
 class Light {
+    private boolean on;
+
     public void turnOn() {
+        on = true;
         System.out.println("Light is ON 💡");
     }
 
     public void turnOff() {
+        on = false;
         System.out.println("Light is OFF 🌑");
     }
+
+    public boolean isOn() {
+        return on;
+    }
+
+    // Set the state silently — used when rebuilding state from a journal
+    void restore(boolean on) {
+        this.on = on;
+    }
 }
 
 // Concrete Commands
-class LightOnCommand implements Command {
+class LightOnCommand implements JournaledCommand {
+    static final byte OPCODE = 1;
+
     private Light light;
 
     public LightOnCommand(Light light) {
@@ -42,9 +110,35 @@ class LightOnCommand implements Command {
     public void execute() {
         light.turnOn();
     }
+
+    public void undo() {
+        light.turnOff();
+    }
+
+    public byte opcode() {
+        return OPCODE;
+    }
+
+    public byte undoOpcode() {
+        return LightOffCommand.OPCODE;
+    }
+
+    public Light getLight() {
+        return light;
+    }
+
+    public Object coalescingKey() {
+        return light;  // on/off both set the light's state, so the last one wins
+    }
+
+    public Object receiver() {
+        return light;
+    }
 }
 
-class LightOffCommand implements Command {
+class LightOffCommand implements JournaledCommand {
+    static final byte OPCODE = 2;
+
     private Light light;
 
     public LightOffCommand(Light light) {
@@ -54,6 +148,30 @@ class LightOffCommand implements Command {
     public void execute() {
         light.turnOff();
     }
+
+    public void undo() {
+        light.turnOn();
+    }
+
+    public byte opcode() {
+        return OPCODE;
+    }
+
+    public byte undoOpcode() {
+        return LightOnCommand.OPCODE;
+    }
+
+    public Light getLight() {
+        return light;
+    }
+
+    public Object coalescingKey() {
+        return light;
+    }
+
+    public Object receiver() {
+        return light;
+    }
 }
 
 // Invoker
@@ -69,9 +187,568 @@ class RemoteControl {
     }
 }
 
+/**
+ * 📦 BatchingCommandExecutor
+ *
+ * Queues commands from any thread and runs them in batches:
+ * - flush() drains up to maxBatch queued commands at a time
+ * - within a batch, a command is skipped (elided) when a later command has the same
+ *   coalescingKey — e.g. LightOn, LightOff, LightOn on one Light runs only the final LightOn
+ * - surviving commands keep their original order
+ * - a command that throws is counted as failed and the rest of the batch still runs
+ * - flush() only takes what was queued when it started, so busy producers can't keep it going
+ * - reports batch sizes and the share of commands that were elided
+ */
+class BatchingCommandExecutor {
+    private final ConcurrentLinkedQueue<Command> queue = new ConcurrentLinkedQueue<>();
+    private final int maxBatch;
+
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder executed = new LongAdder();
+    private final LongAdder elided = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private long taken;  // commands polled so far, guarded by "this"
+
+    public BatchingCommandExecutor(int maxBatch) {
+        if (maxBatch < 1) {
+            throw new IllegalArgumentException("maxBatch must be >= 1: " + maxBatch);
+        }
+        this.maxBatch = maxBatch;
+    }
+
+    public void submit(Command command) {
+        queue.offer(command);
+        submitted.increment();
+    }
+
+    // Run everything queued so far; returns the number of commands that executed successfully
+    public synchronized int flush() {
+        // submit() counts after offering, so this never exceeds what is really in the queue
+        long budget = submitted.sum() - taken;
+        List<Command> batch = new ArrayList<>((int) Math.min(Math.min(maxBatch, 1024), Math.max(budget, 0)));
+        int ran = 0;
+        Command next;
+        while (budget > 0 && (next = queue.poll()) != null) {
+            budget--;
+            taken++;
+            batch.add(next);
+            if (batch.size() == maxBatch) {
+                ran += runBatch(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            ran += runBatch(batch);
+        }
+        return ran;
+    }
+
+    private int runBatch(List<Command> batch) {
+        // Walk backwards: the first time we see a key is its latest command
+        boolean[] skip = new boolean[batch.size()];
+        Set<Object> seen = new HashSet<>();
+        for (int i = batch.size() - 1; i >= 0; i--) {
+            Object key = batch.get(i).coalescingKey();
+            if (key != null && !seen.add(key)) {
+                skip[i] = true;
+            }
+        }
+        int ran = 0;
+        int failures = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            if (!skip[i]) {
+                try {
+                    batch.get(i).execute();
+                    ran++;
+                } catch (RuntimeException e) {
+                    failures++;  // one bad command must not take the rest of the batch with it
+                }
+            }
+        }
+        batches.increment();
+        executed.add(ran);
+        failed.add(failures);
+        elided.add(batch.size() - ran - failures);
+        return ran;
+    }
+
+    public int pending() {
+        return queue.size();
+    }
+
+    public long failedCount() {
+        return failed.sum();
+    }
+
+    public double averageBatchSize() {
+        long b = batches.sum();
+        return b == 0 ? 0 : (double) (executed.sum() + elided.sum() + failed.sum()) / b;
+    }
+
+    // Share of processed commands that were skipped because a later one superseded them
+    public double elisionRatio() {
+        long total = executed.sum() + elided.sum();
+        return total == 0 ? 0 : (double) elided.sum() / total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("BatchingCommandExecutor[submitted=%d, executed=%d, elided=%d, failed=%d, batches=%d, avgBatch=%.1f, elision=%.0f%%]",
+                submitted.sum(), executed.sum(), elided.sum(), failed.sum(), batches.sum(), averageBatchSize(), elisionRatio() * 100);
+    }
+}
+
+/**
+ * 📒 CommandJournal
+ *
+ * Runs light commands with undo/redo and records every state change in a compact binary journal,
+ * so device state can be rebuilt after a crash.
+ * - commands describe themselves (JournaledCommand): an opcode, plus the light as payload
+ * - each journal record is 5 bytes: the opcode and the light's id; an undo is journaled with
+ *   the command's undoOpcode(), so replay never needs undo logic
+ * - replay looks opcodes up in a registry of decoders (LightOn/LightOff by default); an opcode
+ *   nobody registered means the journal is corrupt, and recovery refuses it
+ * - records go through a buffered FileChannel; every syncEvery records are forced to disk together
+ * - every snapshotEvery records the state of all lights is snapshotted and the journal restarts,
+ *   which bounds recovery to "load snapshot + replay a short tail"
+ * - opening a journal recovers automatically; undo/redo history starts fresh
+ */
+class CommandJournal implements AutoCloseable {
+    // How to reapply a journaled opcode to a light, silently
+    interface Decoder {
+        void replay(Light light);
+    }
+
+    static final Map<Byte, Decoder> DEFAULT_DECODERS = Map.of(
+            LightOnCommand.OPCODE, light -> light.restore(true),
+            LightOffCommand.OPCODE, light -> light.restore(false));
+
+    private static final int RECORD_BYTES = 5;
+    private static final int JOURNAL_MAGIC = 0x4A524E4C;   // "JRNL"
+    private static final int SNAPSHOT_MAGIC = 0x534E4150;  // "SNAP"
+    private static final int JOURNAL_HEADER_BYTES = 12;    // magic + generation
+
+    private final Path journalFile;
+    private final Path snapshotFile;
+    private final List<Light> lights;                      // id = position in this list
+    private final Map<Light, Integer> ids = new IdentityHashMap<>();
+    private final Decoder[] decoders = new Decoder[256];  // indexed by opcode & 0xFF
+    private final int syncEvery;
+    private final int snapshotEvery;
+
+    private final Deque<JournaledCommand> undoStack = new ArrayDeque<>();
+    private final Deque<JournaledCommand> redoStack = new ArrayDeque<>();
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+
+    private FileChannel journal;
+    private long generation;
+    private int unsynced;
+    private int sinceSnapshot;
+    private long replayed;
+
+    public CommandJournal(Path dir, List<Light> lights, int syncEvery, int snapshotEvery) throws IOException {
+        this(dir, lights, syncEvery, snapshotEvery, DEFAULT_DECODERS);
+    }
+
+    public CommandJournal(Path dir, List<Light> lights, int syncEvery, int snapshotEvery,
+                          Map<Byte, Decoder> decoders) throws IOException {
+        if (syncEvery < 1 || snapshotEvery < 1) {
+            throw new IllegalArgumentException("syncEvery and snapshotEvery must be >= 1");
+        }
+        decoders.forEach((opcode, decoder) -> this.decoders[opcode & 0xFF] = decoder);
+        Files.createDirectories(dir);
+        this.journalFile = dir.resolve("commands.journal");
+        this.snapshotFile = dir.resolve("lights.snapshot");
+        this.lights = List.copyOf(lights);
+        for (int i = 0; i < this.lights.size(); i++) {
+            ids.put(this.lights.get(i), i);
+        }
+        this.syncEvery = syncEvery;
+        this.snapshotEvery = snapshotEvery;
+        recover();
+    }
+
+    public synchronized void execute(JournaledCommand command) {
+        // Encode first: a command we can't journal must not change any light
+        byte opcode = checked(command.opcode());
+        int id = idOf(command);
+        command.execute();
+        record(opcode, id);
+        undoStack.push(command);
+        redoStack.clear();
+    }
+
+    public synchronized boolean undo() {
+        JournaledCommand command = undoStack.peek();
+        if (command == null) {
+            return false;
+        }
+        byte opcode = checked(command.undoOpcode());  // throws (and keeps the command) if it can't undo
+        int id = idOf(command);
+        undoStack.pop();
+        command.undo();
+        record(opcode, id);
+        redoStack.push(command);
+        return true;
+    }
+
+    public synchronized boolean redo() {
+        JournaledCommand command = redoStack.poll();
+        if (command == null) {
+            return false;
+        }
+        byte opcode = checked(command.opcode());
+        int id = idOf(command);
+        command.execute();
+        record(opcode, id);
+        undoStack.push(command);
+        return true;
+    }
+
+    // Records replayed by the last recovery (journal tail after the snapshot)
+    public long replayedCount() {
+        return replayed;
+    }
+
+    // Write out buffered records and force them to disk
+    public synchronized void sync() {
+        try {
+            drain();
+            journal.force(false);
+            unsynced = 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public synchronized void close() throws IOException {
+        sync();
+        journal.close();
+    }
+
+    private void record(byte opcode, int id) {
+        try {
+            if (buffer.remaining() < RECORD_BYTES) {
+                drain();
+            }
+            buffer.put(opcode).putInt(id);
+            if (++unsynced >= syncEvery) {
+                drain();
+                journal.force(false);  // group commit: one fsync for the whole batch
+                unsynced = 0;
+            }
+            if (++sinceSnapshot >= snapshotEvery) {
+                snapshot();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            journal.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    // Save every light's state, then start a fresh journal of the next generation
+    private void snapshot() throws IOException {
+        drain();
+        journal.force(false);
+        long next = generation + 1;
+        ByteBuffer snap = ByteBuffer.allocate(16 + lights.size());
+        snap.putInt(SNAPSHOT_MAGIC).putLong(next).putInt(lights.size());
+        for (Light light : lights) {
+            snap.put((byte) (light.isOn() ? 1 : 0));
+        }
+        snap.flip();
+        Path tmp = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (snap.hasRemaining()) {
+                out.write(snap);
+            }
+            out.force(true);
+        }
+        Files.move(tmp, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        journal.close();
+        openJournal(next, true);  // older journal generations are ignored from now on
+        sinceSnapshot = 0;
+        unsynced = 0;
+    }
+
+    // Load the snapshot, then replay the journal tail of the same generation onto the lights
+    private void recover() throws IOException {
+        boolean[] on = new boolean[lights.size()];
+        for (int i = 0; i < on.length; i++) {
+            on[i] = lights.get(i).isOn();
+        }
+        long snapshotGeneration = 0;
+        if (Files.exists(snapshotFile)) {
+            ByteBuffer snap = ByteBuffer.wrap(Files.readAllBytes(snapshotFile));
+            if (snap.getInt() != SNAPSHOT_MAGIC) {
+                throw new IOException("Corrupt snapshot: " + snapshotFile);
+            }
+            snapshotGeneration = snap.getLong();
+            int count = Math.min(snap.getInt(), on.length);
+            for (int i = 0; i < count; i++) {
+                on[i] = snap.get() != 0;
+            }
+        }
+        for (int i = 0; i < on.length; i++) {
+            lights.get(i).restore(on[i]);
+        }
+
+        replayed = 0;
+        if (Files.exists(journalFile)) {
+            try (FileChannel in = FileChannel.open(journalFile, StandardOpenOption.READ)) {
+                ByteBuffer header = ByteBuffer.allocate(JOURNAL_HEADER_BYTES);
+                while (header.hasRemaining()) {
+                    if (in.read(header) < 0) {
+                        break;
+                    }
+                }
+                header.flip();
+                if (header.remaining() == JOURNAL_HEADER_BYTES && header.getInt() == JOURNAL_MAGIC
+                        && header.getLong() == snapshotGeneration) {
+                    ByteBuffer chunk = ByteBuffer.allocateDirect(1 << 20);
+                    while (in.read(chunk) >= 0) {
+                        chunk.flip();
+                        while (chunk.remaining() >= RECORD_BYTES) {  // a torn last record is ignored
+                            byte opcode = chunk.get();
+                            int id = chunk.getInt();
+                            Decoder decoder = decoders[opcode & 0xFF];
+                            if (decoder == null) {
+                                throw new IllegalStateException("Corrupt journal " + journalFile
+                                        + ": unknown opcode " + opcode + " in record " + replayed);
+                            }
+                            if (id >= 0 && id < lights.size()) {  // lights removed since are skipped
+                                decoder.replay(lights.get(id));
+                            }
+                            replayed++;
+                        }
+                        chunk.compact();
+                    }
+                }
+            }
+        }
+
+        generation = snapshotGeneration;
+        openJournal(generation, replayed == 0);
+        sinceSnapshot = (int) Math.min(replayed, Integer.MAX_VALUE);
+    }
+
+    private void openJournal(long gen, boolean fresh) throws IOException {
+        generation = gen;
+        if (fresh) {
+            journal = FileChannel.open(journalFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            ByteBuffer header = ByteBuffer.allocate(JOURNAL_HEADER_BYTES).putInt(JOURNAL_MAGIC).putLong(gen);
+            header.flip();
+            while (header.hasRemaining()) {
+                journal.write(header);
+            }
+        } else {
+            journal = FileChannel.open(journalFile, StandardOpenOption.WRITE);
+            long size = journal.size();
+            long whole = JOURNAL_HEADER_BYTES + (size - JOURNAL_HEADER_BYTES) / RECORD_BYTES * RECORD_BYTES;
+            journal.truncate(whole);  // drop a torn tail record before appending
+            journal.position(whole);
+        }
+    }
+
+    // An opcode recovery couldn't decode must never reach the journal
+    private byte checked(byte opcode) {
+        if (decoders[opcode & 0xFF] == null) {
+            throw new IllegalArgumentException("No decoder registered for opcode " + opcode);
+        }
+        return opcode;
+    }
+
+    private int idOf(JournaledCommand command) {
+        Integer id = ids.get(command.getLight());
+        if (id == null) {
+            throw new IllegalArgumentException("Light is not registered with this journal");
+        }
+        return id;
+    }
+}
+
+/**
+ * 🧵 StripedCommandScheduler
+ *
+ * Runs commands for different receivers in parallel, while commands for the same
+ * receiver still run one at a time, in submission order.
+ * - every receiver gets a mailbox (a queue + a "scheduled" flag); commands are queued inside
+ *   the map's compute(), and a mailbox that runs dry is removed the same way, so the map only
+ *   holds receivers with work and a removed mailbox can never receive another command
+ * - a mailbox with work is a single task on a work-stealing ForkJoinPool; it runs up to
+ *   `throughput` commands and then yields its thread so busy receivers can't starve quiet ones
+ * - commands without a receiver() run as independent tasks
+ * - idleness is tracked with LongAdders (submitted vs finished), so workers don't share one counter
+ * - after close(), submit() throws RejectedExecutionException; close() waits for submits already
+ *   in progress before shutting the pool down, because a ForkJoinPool can accept a task in the
+ *   middle of terminating and then never run it
+ */
+class StripedCommandScheduler implements AutoCloseable {
+    private final class Mailbox implements Runnable {
+        final Object receiver;
+        final ConcurrentLinkedQueue<Command> queue = new ConcurrentLinkedQueue<>();
+        final AtomicBoolean scheduled = new AtomicBoolean();
+
+        Mailbox(Object receiver) {
+            this.receiver = receiver;
+        }
+
+        // Called after the command was queued
+        void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    pool.execute(this);
+                } catch (RejectedExecutionException e) {
+                    // other producers may have queued behind us and lost the CAS,
+                    // so this thread owns the mailbox now and drains all of it
+                    run();
+                }
+            }
+        }
+
+        public void run() {
+            for (;;) {
+                for (int i = 0; i < throughput; i++) {
+                    Command next = queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    runCommand(next);
+                }
+                scheduled.set(false);
+                if (queue.isEmpty()) {
+                    retireIfIdle();
+                    return;
+                }
+                // Work arrived after the last poll — reschedule rather than lose it
+                if (!scheduled.compareAndSet(false, true)) {
+                    return;
+                }
+                try {
+                    pool.execute(this);
+                    return;
+                } catch (RejectedExecutionException e) {
+                    // closing: finish this mailbox's backlog on the current thread
+                }
+            }
+        }
+
+        // Commands are only queued inside compute(), so an empty, unscheduled mailbox removed
+        // here can't be holding (or about to get) anything
+        private void retireIfIdle() {
+            mailboxes.computeIfPresent(receiver,
+                    (k, current) -> current == this && queue.isEmpty() && !scheduled.get() ? null : current);
+        }
+    }
+
+    private final ForkJoinPool pool;
+    private final int throughput;
+    private final ConcurrentHashMap<Object, Mailbox> mailboxes = new ConcurrentHashMap<>();
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder executed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder submitsStarted = new LongAdder();
+    private final LongAdder submitsDone = new LongAdder();
+    private volatile boolean closed;
+
+    public StripedCommandScheduler(int threads, int throughput) {
+        if (threads < 1 || throughput < 1) {
+            throw new IllegalArgumentException("threads and throughput must be >= 1");
+        }
+        this.pool = new ForkJoinPool(threads, ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true);
+        this.throughput = throughput;
+    }
+
+    public void submit(Command command) {
+        submitsStarted.increment();  // before reading "closed", so close() either sees us or we see it
+        try {
+            if (closed) {
+                throw new RejectedExecutionException("StripedCommandScheduler is closed");
+            }
+            submitted.increment();
+            Object receiver = command.receiver();
+            if (receiver == null) {
+                pool.execute(() -> runCommand(command));
+            } else {
+                mailboxes.compute(receiver, (k, mailbox) -> {
+                    Mailbox target = mailbox != null ? mailbox : new Mailbox(k);
+                    target.queue.offer(command);
+                    return target;
+                }).schedule();
+            }
+        } finally {
+            submitsDone.increment();
+        }
+    }
+
+    private void runCommand(Command command) {
+        try {
+            command.execute();
+            executed.increment();
+        } catch (RuntimeException e) {
+            failed.increment();  // one bad command must not stall its receiver's mailbox
+        }
+    }
+
+    // Wait until every submitted command has run; returns false on timeout
+    public boolean awaitIdle(long timeout, TimeUnit unit) {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (!idle()) {
+            if (System.nanoTime() > deadline) {
+                return false;
+            }
+            LockSupport.parkNanos(50_000);
+        }
+        return true;
+    }
+
+    // Finished is read before submitted, so a racing submit can only make this say "busy"
+    private boolean idle() {
+        long finished = executed.sum() + failed.sum();
+        return finished >= submitted.sum();
+    }
+
+    public long executedCount() {
+        return executed.sum();
+    }
+
+    public long failedCount() {
+        return failed.sum();
+    }
+
+    // Receivers that currently have queued or running commands
+    public int receiverCount() {
+        return mailboxes.size();
+    }
+
+    public void close() {
+        closed = true;
+        // Same trick as idle(): done is read before started, so "all done" can't be a torn read
+        while (submitsDone.sum() < submitsStarted.sum()) {
+            LockSupport.parkNanos(10_000);
+        }
+        pool.shutdown();
+        try {
+            pool.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
+
 // Client
 public class CommandMethod {
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
         Light light = new Light();
 
         Command lightsOn = new LightOnCommand(light);
@@ -84,5 +761,128 @@ public class CommandMethod {
 
         remote.setCommand(lightsOff);
         remote.pressButton();
+
+        // A burst of commands: only the last one per light actually runs
+        BatchingCommandExecutor executor = new BatchingCommandExecutor(256);
+        executor.submit(lightsOn);
+        executor.submit(lightsOff);
+        executor.submit(lightsOn);
+        executor.submit(lightsOff);
+        executor.flush();
+        System.out.println(executor);
+
+        // Many lights in parallel, each light's commands still in order
+        try (StripedCommandScheduler scheduler = new StripedCommandScheduler(2, 64)) {
+            Light hall = new Light();
+            Light kitchen = new Light();
+            scheduler.submit(new LightOnCommand(hall));
+            scheduler.submit(new LightOnCommand(kitchen));
+            scheduler.submit(new LightOffCommand(hall));
+            scheduler.awaitIdle(1, TimeUnit.SECONDS);
+            System.out.println("Hall on? " + hall.isOn() + ", kitchen on? " + kitchen.isOn());
+        }
+
+        // Journaled commands: undo/redo now, and the state survives a restart
+        Path dir = Files.createTempDirectory("remote-journal");
+        try {
+            try (CommandJournal journal = new CommandJournal(dir, List.of(light), 64, 1_000)) {
+                journal.execute(new LightOnCommand(light));
+                journal.undo();
+                journal.redo();
+            }
+            light.restore(false);  // pretend we crashed and lost the in-memory state
+            try (CommandJournal recovered = new CommandJournal(dir, List.of(light), 64, 1_000)) {
+                System.out.println("Recovered " + recovered.replayedCount() + " records, light on? " + light.isOn());
+            }
+        } finally {
+            try (var files = Files.list(dir)) {
+                for (Path f : (Iterable<Path>) files::iterator) {
+                    Files.delete(f);
+                }
+            }
+            Files.delete(dir);
+        }
+    }
+}
+
+/**
+ * ⏱️ SchedulerBenchmark
+ *
+ * Sweeps receiver count and thread count for StripedCommandScheduler, checking
+ * that every receiver still saw its commands in order.
+ *
+ * Run: java SchedulerBenchmark [commands]
+ */
+class SchedulerBenchmark {
+    // Receiver that verifies ordering: each command carries the next expected sequence number
+    static final class Counter {
+        long last = -1;
+        boolean ordered = true;
+    }
+
+    static final class StepCommand implements Command {
+        private final Counter counter;
+        private final long seq;
+
+        StepCommand(Counter counter, long seq) {
+            this.counter = counter;
+            this.seq = seq;
+        }
+
+        public void execute() {
+            if (counter.last + 1 != seq) {
+                counter.ordered = false;
+            }
+            counter.last = seq;
+            Blackhole.consumeCpu(200);  // a little real work per command
+        }
+
+        public Object receiver() {
+            return counter;
+        }
+    }
+
+    static final class Blackhole {
+        static volatile long sink;
+
+        static void consumeCpu(int iterations) {
+            long x = 0;
+            for (int i = 0; i < iterations; i++) {
+                x = x * 31 + i;
+            }
+            sink = x;
+        }
+    }
+
+    public static void main(String[] args) {
+        int commands = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        int cores = Runtime.getRuntime().availableProcessors();
+        int[] receiverCounts = {1, 16, 1_024, 16_384};
+        int[] threadCounts = IntStream.of(1, 2, 4, 8, cores).distinct().sorted().toArray();
+
+        for (int receivers : receiverCounts) {
+            for (int threads : threadCounts) {
+                Counter[] counters = new Counter[receivers];
+                long[] next = new long[receivers];
+                for (int i = 0; i < receivers; i++) {
+                    counters[i] = new Counter();
+                }
+                try (StripedCommandScheduler scheduler = new StripedCommandScheduler(threads, 256)) {
+                    long start = System.nanoTime();
+                    for (int i = 0; i < commands; i++) {
+                        int r = i % receivers;
+                        scheduler.submit(new StepCommand(counters[r], next[r]++));
+                    }
+                    scheduler.awaitIdle(10, TimeUnit.MINUTES);
+                    long elapsed = System.nanoTime() - start;
+                    boolean ordered = true;
+                    for (Counter c : counters) {
+                        ordered &= c.ordered;
+                    }
+                    System.out.printf("receivers %6d  threads %2d: %6.2f M commands/s  ordered=%b%n",
+                            receivers, threads, commands * 1e3 / elapsed, ordered);
+                }
+            }
+        }
     }
 }
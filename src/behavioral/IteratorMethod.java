@@ -14,25 +14,104 @@
  * - Provides a standard way to loop through different data structures
  */
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import java.util.zip.CRC32C;
+
 // Collection interface
 interface SongCollection {
     Iterator getIterator();
+
+    // Spliterator over the songs, for streams; collections that can split evenly override this
+    default Spliterator<String> spliterator() {
+        Iterator it = getIterator();
+        return new Spliterators.AbstractSpliterator<String>(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+            public boolean tryAdvance(Consumer<? super String> action) {
+                if (!it.hasNext()) {
+                    return false;
+                }
+                action.accept(it.next());
+                return true;
+            }
+
+            public void forEachRemaining(Consumer<? super String> action) {
+                it.forEachRemaining(action);
+            }
+        };
+    }
+
+    default Stream<String> stream(boolean parallel) {
+        return StreamSupport.stream(spliterator(), parallel);
+    }
 }
 
 // Iterator interface
 interface Iterator {
     boolean hasNext();
     String next();
+
+    // Copy up to n songs into dest[0..n), return how many were copied (0 at the end)
+    default int next(int n, String[] dest) {
+        if (n < 0 || n > dest.length) {
+            throw new IllegalArgumentException("n must be between 0 and dest.length");
+        }
+        int count = 0;
+        while (count < n && hasNext()) {
+            dest[count++] = next();
+        }
+        return count;
+    }
+
+    default void forEachRemaining(Consumer<? super String> action) {
+        while (hasNext()) {
+            action.accept(next());
+        }
+    }
 }
 
 // Concrete collection
 class Playlist implements SongCollection {
     private String[] songs = {"Lose Yourself", "Blinding Lights", "God's Plan"};
 
+    Playlist() {
+    }
+
+    Playlist(String[] songs) {
+        this.songs = songs.clone();
+    }
+
+    public int size() {
+        return songs.length;
+    }
+
     public Iterator getIterator() {
         return new PlaylistIterator();
     }
 
+    public Spliterator<String> spliterator() {
+        return new PlaylistSpliterator(songs, 0, songs.length);
+    }
+
     // Inner class: Iterator implementation
     private class PlaylistIterator implements Iterator {
         int index = 0;
@@ -47,6 +126,446 @@ class Playlist implements SongCollection {
             }
             return null;
         }
+
+        // One arraycopy instead of n hasNext()/next() pairs
+        public int next(int n, String[] dest) {
+            if (n < 0 || n > dest.length) {
+                throw new IllegalArgumentException("n must be between 0 and dest.length");
+            }
+            int count = Math.min(n, songs.length - index);
+            System.arraycopy(songs, index, dest, 0, count);
+            index += count;
+            return count;
+        }
+
+        public void forEachRemaining(Consumer<? super String> action) {
+            String[] a = songs;
+            int end = a.length;
+            for (int i = index; i < end; i++) {
+                action.accept(a[i]);
+            }
+            index = end;
+        }
+    }
+}
+
+/**
+ * ✂️ PlaylistSpliterator
+ *
+ * Splits a playlist's array range exactly in half, so parallel streams get balanced work:
+ * - SIZED/SUBSIZED: every split knows its exact size
+ * - the array is never copied, each split just narrows [index, end)
+ */
+class PlaylistSpliterator implements Spliterator<String> {
+    private final String[] songs;
+    private int index;
+    private final int end;
+
+    PlaylistSpliterator(String[] songs, int from, int to) {
+        this.songs = songs;
+        this.index = from;
+        this.end = to;
+    }
+
+    public boolean tryAdvance(Consumer<? super String> action) {
+        if (index >= end) {
+            return false;
+        }
+        action.accept(songs[index++]);
+        return true;
+    }
+
+    public void forEachRemaining(Consumer<? super String> action) {
+        String[] a = songs;
+        for (int i = index; i < end; i++) {
+            action.accept(a[i]);
+        }
+        index = end;
+    }
+
+    public Spliterator<String> trySplit() {
+        int mid = (index + end) >>> 1;
+        if (mid <= index) {
+            return null;
+        }
+        Spliterator<String> prefix = new PlaylistSpliterator(songs, index, mid);
+        index = mid;
+        return prefix;
+    }
+
+    public long estimateSize() {
+        return end - index;
+    }
+
+    public int characteristics() {
+        return ORDERED | SIZED | SUBSIZED | IMMUTABLE | NONNULL;
+    }
+}
+
+/**
+ * 💾 MappedPlaylist
+ *
+ * A SongCollection read straight from disk, for playlists too big for a String[]:
+ * - data file: one entry per song, [int length][UTF-8 bytes]
+ * - sidecar "<file>.idx": the byte offset of every song, so get(n) is one lookup
+ *   (rebuilt with a streaming pass if it's missing or doesn't match the data file)
+ * - an index is built in a temp file and atomically renamed into place, so a concurrent
+ *   opener never maps a half-written one; if the playlist's directory isn't writable,
+ *   the index lives under java.io.tmpdir instead
+ * - both files are memory-mapped; only the pages being read are resident, so heap use
+ *   stays the same whatever the playlist size
+ * - data segments overlap by the longest entry, so an entry never straddles two buffers
+ * - iterators decode lazily, READ_AHEAD songs at a time, through a small reused buffer;
+ *   one huge entry only costs its own size when it is read
+ * - the index stores the data file's size, modification time and a head/tail checksum,
+ *   so a rewritten playlist gets a fresh index
+ */
+class MappedPlaylist implements SongCollection {
+    static final int MAX_ENTRY_BYTES = 1 << 20;
+    static final int SEGMENT_SHIFT = 30;  // 1 GB of data per mapped segment
+    static final long SEGMENT_MASK = (1L << SEGMENT_SHIFT) - 1;
+    static final int INDEX_SHIFT = 27;    // 2^27 offsets (1 GB) per mapped index segment
+    static final long INDEX_MASK = (1L << INDEX_SHIFT) - 1;
+    static final int INDEX_MAGIC = 0x58444953;  // "SIDX"
+    static final int INDEX_VERSION = 2;
+    static final int INDEX_HEADER_BYTES = 40;
+    static final int FINGERPRINT_BYTES = 4096;  // hashed from each end of the data file
+    static final int SCRATCH_BYTES = 4096;      // iterator decode buffer; longer entries get their own array
+    static final int READ_AHEAD = 256;
+    private static final byte[] NO_SCRATCH = new byte[0];
+
+    private final long size;
+    private final int maxRecordBytes;
+    private final MappedByteBuffer[] data;
+    private final MappedByteBuffer[] index;
+
+    private MappedPlaylist(long size, int maxRecordBytes, MappedByteBuffer[] data, MappedByteBuffer[] index) {
+        this.size = size;
+        this.maxRecordBytes = maxRecordBytes;
+        this.data = data;
+        this.index = index;
+    }
+
+    public static void write(Path file, Iterator songs) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16))) {
+            while (songs.hasNext()) {
+                String song = songs.next();
+                if (song == null) {
+                    throw new IllegalArgumentException("Song must not be null");
+                }
+                byte[] bytes = song.getBytes(StandardCharsets.UTF_8);
+                if (bytes.length > MAX_ENTRY_BYTES) {
+                    throw new IllegalArgumentException("Song entry longer than " + MAX_ENTRY_BYTES + " bytes");
+                }
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+        }
+        writeIndex(file);
+    }
+
+    public static MappedPlaylist open(Path file) throws IOException {
+        long dataLength = Files.size(file);
+        Path indexFile = indexPath(file);
+        if (!indexMatches(indexFile, file, dataLength)) {
+            Path fallback = fallbackIndexPath(file);
+            indexFile = indexMatches(fallback, file, dataLength) ? fallback : writeIndex(file);
+        }
+        try (FileChannel dataChannel = FileChannel.open(file, StandardOpenOption.READ);
+             FileChannel indexChannel = FileChannel.open(indexFile, StandardOpenOption.READ)) {
+            ByteBuffer header = indexChannel.map(FileChannel.MapMode.READ_ONLY, 0, INDEX_HEADER_BYTES);
+            long size = header.getLong(16);
+            int maxRecordBytes = header.getInt(24);
+
+            MappedByteBuffer[] data = new MappedByteBuffer[(int) ((dataLength + SEGMENT_MASK) >>> SEGMENT_SHIFT)];
+            for (int i = 0; i < data.length; i++) {
+                long start = (long) i << SEGMENT_SHIFT;
+                long length = Math.min(dataLength - start, (1L << SEGMENT_SHIFT) + maxRecordBytes);
+                data[i] = dataChannel.map(FileChannel.MapMode.READ_ONLY, start, length);
+            }
+            MappedByteBuffer[] index = new MappedByteBuffer[(int) ((size + INDEX_MASK) >>> INDEX_SHIFT)];
+            for (int i = 0; i < index.length; i++) {
+                long first = (long) i << INDEX_SHIFT;
+                long count = Math.min(size - first, 1L << INDEX_SHIFT);
+                index[i] = indexChannel.map(FileChannel.MapMode.READ_ONLY, INDEX_HEADER_BYTES + first * Long.BYTES, count * Long.BYTES);
+            }
+            return new MappedPlaylist(size, maxRecordBytes, data, index);
+        }
+    }
+
+    static Path indexPath(Path file) {
+        return file.resolveSibling(file.getFileName() + ".idx");
+    }
+
+    // Where the index goes when the playlist's own directory is read-only
+    static Path fallbackIndexPath(Path file) {
+        Path absolute = file.toAbsolutePath().normalize();
+        return Path.of(System.getProperty("java.io.tmpdir"), "playlist-index",
+                absolute.getFileName() + "-" + Integer.toHexString(absolute.toString().hashCode()) + ".idx");
+    }
+
+    // Build the sidecar index, or the fallback one if the sidecar can't be written; returns its path
+    private static Path writeIndex(Path file) throws IOException {
+        Path sidecar = indexPath(file);
+        try {
+            buildIndex(file, sidecar);
+            return sidecar;
+        } catch (FileSystemException e) {  // e.g. permission denied, read-only file system
+            Path fallback = fallbackIndexPath(file);
+            Files.createDirectories(fallback.getParent());
+            buildIndex(file, fallback);
+            return fallback;
+        }
+    }
+
+    private static boolean indexMatches(Path indexFile, Path file, long dataLength) throws IOException {
+        if (!Files.exists(indexFile) || Files.size(indexFile) < INDEX_HEADER_BYTES) {
+            return false;
+        }
+        try (FileChannel ch = FileChannel.open(indexFile, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(INDEX_HEADER_BYTES);
+            while (header.hasRemaining() && ch.read(header) >= 0) {
+                // keep reading until the header is full
+            }
+            return header.getInt(0) == INDEX_MAGIC
+                    && header.getInt(4) == INDEX_VERSION
+                    && header.getLong(8) == dataLength
+                    && Files.size(indexFile) == INDEX_HEADER_BYTES + header.getLong(16) * Long.BYTES
+                    && header.getLong(32) == Files.getLastModifiedTime(file).toMillis()
+                    && header.getInt(28) == fingerprint(file, dataLength);
+        }
+    }
+
+    // One sequential pass over the data file, writing offsets to a temp file that then replaces target
+    private static void buildIndex(Path file, Path target) throws IOException {
+        Path tmp = Files.createTempFile(target.toAbsolutePath().getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            writeIndexTo(file, tmp);
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);  // only still there if something failed
+        }
+    }
+
+    private static void writeIndexTo(Path file, Path indexFile) throws IOException {
+        long dataLength = Files.size(file);
+        long count = 0;
+        int maxRecordBytes = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16));
+             FileChannel out = FileChannel.open(indexFile, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buf = ByteBuffer.allocateDirect(1 << 16);
+            out.position(INDEX_HEADER_BYTES);
+            long pos = 0;
+            while (pos < dataLength) {
+                if (dataLength - pos < Integer.BYTES) {
+                    throw new IllegalStateException("Corrupt playlist: truncated entry at offset " + pos);
+                }
+                int length = in.readInt();
+                if (length < 0 || length > MAX_ENTRY_BYTES || pos + Integer.BYTES + length > dataLength) {
+                    throw new IllegalStateException("Corrupt playlist: bad entry length " + length + " at offset " + pos);
+                }
+                in.skipNBytes(length);
+                if (!buf.hasRemaining()) {
+                    flush(out, buf);
+                }
+                buf.putLong(pos);
+                count++;
+                maxRecordBytes = Math.max(maxRecordBytes, Integer.BYTES + length);
+                pos += Integer.BYTES + length;
+            }
+            flush(out, buf);
+            ByteBuffer header = ByteBuffer.allocate(INDEX_HEADER_BYTES);
+            header.putInt(INDEX_MAGIC).putInt(INDEX_VERSION).putLong(dataLength).putLong(count).putInt(maxRecordBytes)
+                    .putInt(fingerprint(file, dataLength)).putLong(Files.getLastModifiedTime(file).toMillis());
+            header.clear();
+            out.position(0);
+            while (header.hasRemaining()) {
+                out.write(header);
+            }
+            out.force(true);  // the rename must not publish an index whose blocks aren't on disk yet
+        }
+    }
+
+    // CRC32C of the first and last FINGERPRINT_BYTES: catches a same-size rewrite without reading the whole file
+    private static int fingerprint(Path file, long dataLength) throws IOException {
+        CRC32C crc = new CRC32C();
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buf = ByteBuffer.allocate((int) Math.min(dataLength, FINGERPRINT_BYTES));
+            for (long position : new long[] {0, Math.max(0, dataLength - FINGERPRINT_BYTES)}) {
+                buf.clear();
+                while (buf.hasRemaining() && ch.read(buf, position + buf.position()) >= 0) {
+                    // keep reading until the buffer is full
+                }
+                buf.flip();
+                crc.update(buf);
+            }
+        }
+        return (int) crc.getValue();
+    }
+
+    private static void flush(FileChannel ch, ByteBuffer buf) throws IOException {
+        buf.flip();
+        while (buf.hasRemaining()) {
+            ch.write(buf);
+        }
+        buf.clear();
+    }
+
+    public long size() {
+        return size;
+    }
+
+    // O(1): one index read, one decode
+    public String get(long n) {
+        Objects.checkIndex(n, size);
+        return decode(offsetOf(n), NO_SCRATCH);
+    }
+
+    long offsetOf(long n) {
+        return index[(int) (n >>> INDEX_SHIFT)].getLong((int) (n & INDEX_MASK) << 3);
+    }
+
+    // Length of the entry at offset, including its length prefix
+    int recordBytes(long offset) {
+        return Integer.BYTES + data[(int) (offset >>> SEGMENT_SHIFT)].getInt((int) (offset & SEGMENT_MASK));
+    }
+
+    // Uses scratch when the entry fits, otherwise an array sized from the entry's own length prefix
+    String decode(long offset, byte[] scratch) {
+        MappedByteBuffer segment = data[(int) (offset >>> SEGMENT_SHIFT)];
+        int position = (int) (offset & SEGMENT_MASK);
+        int length = segment.getInt(position);
+        byte[] bytes = length <= scratch.length ? scratch : new byte[length];
+        segment.get(position + Integer.BYTES, bytes, 0, length);
+        return new String(bytes, 0, length, StandardCharsets.UTF_8);
+    }
+
+    public Iterator getIterator() {
+        return iteratorFrom(0);
+    }
+
+    // Start iterating at the n-th song (n == size gives an empty iterator)
+    public Iterator iteratorFrom(long n) {
+        Objects.checkIndex(n, size + 1);
+        return new MappedIterator(n, size);
+    }
+
+    public Spliterator<String> spliterator() {
+        return new MappedSpliterator(0, size);
+    }
+
+    // Walks entries by their length prefixes; the index is only used to find the start
+    private class MappedIterator implements Iterator {
+        private final byte[] scratch = new byte[Math.min(maxRecordBytes, SCRATCH_BYTES)];
+        private final String[] ahead = new String[READ_AHEAD];
+        private int aheadPos;
+        private int aheadCount;
+        private long nextSong;       // next song not yet decoded
+        private final long end;
+        private long offset;         // byte offset of nextSong
+
+        MappedIterator(long from, long to) {
+            this.nextSong = from;
+            this.end = to;
+            this.offset = from < to ? offsetOf(from) : 0;
+        }
+
+        public boolean hasNext() {
+            return aheadPos < aheadCount || nextSong < end;
+        }
+
+        public String next() {
+            if (aheadPos == aheadCount) {
+                if (nextSong >= end) {
+                    return null;
+                }
+                aheadPos = 0;
+                aheadCount = decodeInto(ahead, 0, ahead.length);
+            }
+            String song = ahead[aheadPos];
+            ahead[aheadPos++] = null;
+            return song;
+        }
+
+        public int next(int n, String[] dest) {
+            if (n < 0 || n > dest.length) {
+                throw new IllegalArgumentException("n must be between 0 and dest.length");
+            }
+            int count = 0;
+            while (count < n && aheadPos < aheadCount) {
+                dest[count++] = ahead[aheadPos];
+                ahead[aheadPos++] = null;
+            }
+            return count + decodeInto(dest, count, n - count);
+        }
+
+        public void forEachRemaining(Consumer<? super String> action) {
+            while (aheadPos < aheadCount) {
+                String song = ahead[aheadPos];
+                ahead[aheadPos++] = null;
+                action.accept(song);
+            }
+            while (nextSong < end) {
+                String song = decode(offset, scratch);
+                offset += recordBytes(offset);
+                nextSong++;
+                action.accept(song);
+            }
+        }
+
+        private int decodeInto(String[] dest, int from, int max) {
+            int count = (int) Math.min(max, end - nextSong);
+            for (int i = 0; i < count; i++) {
+                dest[from + i] = decode(offset, scratch);
+                offset += recordBytes(offset);
+            }
+            nextSong += count;
+            return count;
+        }
+    }
+
+    // Splits by song number through the index, so halves are balanced by count
+    private class MappedSpliterator implements Spliterator<String> {
+        private long from;
+        private final long to;
+
+        MappedSpliterator(long from, long to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        public boolean tryAdvance(Consumer<? super String> action) {
+            if (from >= to) {
+                return false;
+            }
+            action.accept(decode(offsetOf(from++), NO_SCRATCH));
+            return true;
+        }
+
+        public void forEachRemaining(Consumer<? super String> action) {
+            if (from < to) {
+                new MappedIterator(from, to).forEachRemaining(action);
+                from = to;
+            }
+        }
+
+        public Spliterator<String> trySplit() {
+            long mid = (from + to) >>> 1;
+            if (mid <= from) {
+                return null;
+            }
+            Spliterator<String> prefix = new MappedSpliterator(from, mid);
+            from = mid;
+            return prefix;
+        }
+
+        public long estimateSize() {
+            return to - from;
+        }
+
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED | IMMUTABLE | NONNULL;
+        }
     }
 }
 
@@ -59,5 +578,169 @@ public class IteratorMethod {
         while (it.hasNext()) {
             System.out.println("Now playing: " + it.next());
         }
+
+        // Bulk: take songs a few at a time
+        Iterator bulk = playlist.getIterator();
+        String[] batch = new String[2];
+        int count;
+        while ((count = bulk.next(batch.length, batch)) > 0) {
+            System.out.println("Queued " + count + " songs, first: " + batch[0]);
+        }
+
+        // Stream over the playlist
+        System.out.println("Longest title: " + playlist.stream(true).mapToInt(String::length).max().getAsInt());
+
+        // Same playlist written to disk and read back through a memory map
+        try {
+            Path file = Files.createTempFile("playlist", ".songs");
+            try {
+                MappedPlaylist.write(file, playlist.getIterator());
+                MappedPlaylist mapped = MappedPlaylist.open(file);
+                Iterator fromDisk = mapped.getIterator();
+                while (fromDisk.hasNext()) {
+                    System.out.println("From disk: " + fromDisk.next());
+                }
+                System.out.println("Song #2 on disk: " + mapped.get(1));
+            } finally {
+                Files.deleteIfExists(MappedPlaylist.indexPath(file));
+                Files.deleteIfExists(file);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
+
+/**
+ * ⏱️ TraversalBenchmark
+ *
+ * Sums title lengths over a large playlist: hasNext()/next() one by one,
+ * bulk next(n, dest), forEachRemaining, and sequential vs parallel streams.
+ *
+ * Run: java TraversalBenchmark [songs]
+ */
+class TraversalBenchmark {
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        String[] titles = new String[1024];
+        for (int i = 0; i < titles.length; i++) {
+            titles[i] = "Song #" + i;  // a small pool of titles keeps the 10M-entry playlist in memory
+        }
+        String[] songs = new String[size];
+        for (int i = 0; i < size; i++) {
+            songs[i] = titles[i & 1023];
+        }
+        Playlist playlist = new Playlist(songs);
+        System.out.println("Songs: " + playlist.size() + ", cores: " + Runtime.getRuntime().availableProcessors());
+
+        for (int round = 0; round < 3; round++) {  // earlier rounds warm up the JIT
+            boolean report = round == 2;
+
+            long start = System.nanoTime();
+            long total = 0;
+            Iterator it = playlist.getIterator();
+            while (it.hasNext()) {
+                total += it.next().length();
+            }
+            print(report, "element-wise", start, total);
+
+            start = System.nanoTime();
+            total = 0;
+            Iterator bulk = playlist.getIterator();
+            String[] buffer = new String[1024];
+            int count;
+            while ((count = bulk.next(buffer.length, buffer)) > 0) {
+                for (int i = 0; i < count; i++) {
+                    total += buffer[i].length();
+                }
+            }
+            print(report, "bulk next(1024)", start, total);
+
+            start = System.nanoTime();
+            long[] sum = new long[1];
+            playlist.getIterator().forEachRemaining(song -> sum[0] += song.length());
+            print(report, "forEachRemaining", start, sum[0]);
+
+            start = System.nanoTime();
+            total = playlist.stream(false).mapToLong(String::length).sum();
+            print(report, "sequential stream", start, total);
+
+            start = System.nanoTime();
+            total = playlist.stream(true).mapToLong(String::length).sum();
+            print(report, "parallel stream", start, total);
+        }
+    }
+
+    private static void print(boolean report, String name, long start, long total) {
+        if (report) {
+            System.out.printf("%-18s %6.1f ms  (total %d)%n", name, (System.nanoTime() - start) / 1e6, total);
+        }
+    }
+}
+
+/**
+ * ⏱️ MappedPlaylistBenchmark
+ *
+ * Writes a large playlist to disk, then times a full lazy scan and random seeks
+ * through the offset index, printing heap use to show it doesn't grow with the file.
+ *
+ * Run: java MappedPlaylistBenchmark [songs] [file]
+ */
+class MappedPlaylistBenchmark {
+    public static void main(String[] args) throws IOException {
+        long songs = args.length > 0 ? Long.parseLong(args[0]) : 5_000_000;
+        Path file = args.length > 1 ? Path.of(args[1]) : Files.createTempFile("playlist", ".songs");
+        try {
+            long start = System.nanoTime();
+            MappedPlaylist.write(file, new Iterator() {
+                long written;
+
+                public boolean hasNext() {
+                    return written < songs;
+                }
+
+                public String next() {
+                    return "Track " + written++ + " — Artist " + (written % 977);
+                }
+            });
+            System.out.printf("wrote %d songs, %d MB in %d ms%n", songs, Files.size(file) >> 20,
+                    (System.nanoTime() - start) / 1_000_000);
+
+            MappedPlaylist playlist = MappedPlaylist.open(file);
+            System.out.printf("heap after open: %d MB%n", usedHeapMb());
+
+            for (int round = 0; round < 2; round++) {  // first round warms up the JIT and page cache
+                start = System.nanoTime();
+                long total = 0;
+                Iterator it = playlist.getIterator();
+                while (it.hasNext()) {
+                    total += it.next().length();
+                }
+                long scanMs = (System.nanoTime() - start) / 1_000_000;
+
+                start = System.nanoTime();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                int seeks = 1_000_000;
+                for (int i = 0; i < seeks; i++) {
+                    total += playlist.get(random.nextLong(playlist.size())).length();
+                }
+                long seekNs = (System.nanoTime() - start) / seeks;
+                if (round == 1) {
+                    System.out.printf("scan %d ms, random get %d ns, heap %d MB (checksum %d)%n",
+                            scanMs, seekNs, usedHeapMb(), total);
+                }
+            }
+        } finally {
+            if (args.length <= 1) {
+                Files.deleteIfExists(MappedPlaylist.indexPath(file));
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    private static long usedHeapMb() {
+        Runtime rt = Runtime.getRuntime();
+        System.gc();
+        return (rt.totalMemory() - rt.freeMemory()) >> 20;
     }
 }
@@ -15,7 +15,34 @@
  * - Subject broadcasts updates
  */
 
+ import java.io.IOException;
+ import java.io.UncheckedIOException;
+ import java.lang.invoke.VarHandle;
+ import java.nio.ByteBuffer;
+ import java.nio.ByteOrder;
+ import java.nio.MappedByteBuffer;
+ import java.nio.channels.FileChannel;
+ import java.nio.charset.StandardCharsets;
+ import java.nio.file.Files;
+ import java.nio.file.Path;
+ import java.nio.file.StandardCopyOption;
+ import java.nio.file.StandardOpenOption;
  import java.util.*;
+ import java.util.concurrent.ConcurrentHashMap;
+ import java.util.concurrent.ConcurrentLinkedQueue;
+ import java.util.concurrent.ConcurrentSkipListMap;
+ import java.util.concurrent.TimeUnit;
+ import java.util.concurrent.atomic.AtomicInteger;
+ import java.util.concurrent.atomic.AtomicLong;
+ import java.util.concurrent.atomic.AtomicLongArray;
+ import java.util.concurrent.atomic.LongAdder;
+ import java.util.concurrent.locks.Condition;
+ import java.util.concurrent.locks.LockSupport;
+ import java.util.concurrent.locks.ReentrantLock;
+ import java.util.function.BiPredicate;
+ import java.util.function.Consumer;
+ import java.util.function.Predicate;
+ import java.util.zip.CRC32C;
 
  interface Observer {
      void update(String message);
@@ -26,30 +53,1229 @@
      void unsubscribe(Observer o);
      void notifyObservers(String message);
  }
+
+ // Subject whose observers can ask for only some messages
+ interface TopicSubject extends Subject {
+     void subscribe(Observer o, Filter filter);
+     void notifyObservers(String topic, String message);
+ }
+
+ /**
+  * 🔎 Filter
+  *
+  * What a filtered subscription wants to receive:
+  * - topic(t):          messages published under topic t
+  * - keywords(k...):    messages containing any of the words (case-insensitive)
+  * - matching(p):       anything p(topic, message) accepts — checked one by one, so use sparingly
+  */
+ final class Filter {
+     enum Kind { TOPIC, KEYWORDS, PREDICATE }
+
+     final Kind kind;
+     final String topic;
+     final Set<String> keywords;
+     final BiPredicate<String, String> predicate;
+
+     private Filter(Kind kind, String topic, Set<String> keywords, BiPredicate<String, String> predicate) {
+         this.kind = kind;
+         this.topic = topic;
+         this.keywords = keywords;
+         this.predicate = predicate;
+     }
+
+     static Filter topic(String topic) {
+         return new Filter(Kind.TOPIC, Objects.requireNonNull(topic), Set.of(), null);
+     }
+
+     static Filter keywords(String... words) {
+         Set<String> normalized = new HashSet<>();
+         for (String w : words) {
+             normalized.add(w.toLowerCase(Locale.ROOT));
+         }
+         return new Filter(Kind.KEYWORDS, null, Set.copyOf(normalized), null);
+     }
+
+     static Filter matching(BiPredicate<String, String> predicate) {
+         return new Filter(Kind.PREDICATE, null, Set.of(), Objects.requireNonNull(predicate));
+     }
+
+     // Checked one message at a time (ring dispatchers, log replay); SubscriptionIndex avoids this
+     boolean matches(String messageTopic, String message) {
+         switch (kind) {
+             case TOPIC:
+                 return topic.equals(messageTopic);
+             case KEYWORDS:
+                 for (String word : SubscriptionIndex.words(message)) {
+                     if (keywords.contains(word)) {
+                         return true;
+                     }
+                 }
+                 return false;
+             default:
+                 return predicate.test(messageTopic, message);
+         }
+     }
+ }
  
- class Channel implements Subject {
-     private List<Observer> observers = new ArrayList<>();
+ // Each observer gets a message at most once, whether it subscribed plainly, filtered, or both
+ class Channel implements TopicSubject {
+     private final SubscriberRegistry<Observer> observers = new SubscriberRegistry<>();
+     private final SubscriptionIndex filtered = new SubscriptionIndex();
+     private final RingDispatcher async;  // null = notify synchronously on the uploader's thread
+     private NotificationLog log;          // null = notifications are not recorded
+
+     public Channel() {
+         this(null);
+     }
+
+     // Asynchronous mode: uploads only publish into the ring, dispatcher threads deliver
+     // (filtered subscriptions too — the ring checks their filters)
+     public Channel(RingDispatcher async) {
+         this.async = async;
+     }
  
      public void subscribe(Observer o) {
-         observers.add(o);
+         if (async != null) {
+             async.subscribe(o);
+         } else {
+             observers.subscribe(o);
+         }
      }
  
+     // Synchronous mode matches filtered subscriptions through an index on the publishing thread
+     public void subscribe(Observer o, Filter filter) {
+         if (async != null) {
+             async.subscribe(o, filter);
+         } else {
+             filtered.subscribe(o, filter);
+         }
+     }
+
      public void unsubscribe(Observer o) {
-         observers.remove(o);
+         if (async != null) {
+             async.unsubscribe(o);
+         } else {
+             observers.unsubscribe(o);
+             filtered.unsubscribe(o);
+         }
      }
  
+     // Record every notification so late or reconnecting observers can catch up with replay()
+     public Channel withLog(NotificationLog log) {
+         this.log = log;
+         return this;
+     }
+
      public void notifyObservers(String message) {
-         for (Observer o : observers) {
-             o.update(message);
+         notifyObservers(null, message);
+     }
+
+     // Unfiltered observers get everything; filtered ones only what matches
+     public void notifyObservers(String topic, String message) {
+         if (log != null) {
+             log.append(topic, message);  // durable within one group-commit interval
+         }
+         if (async != null) {
+             async.notifyObservers(topic, message);
+         } else {
+             observers.forEach(o -> o.update(message));
+             filtered.publish(topic, message, observers::contains);  // they already have it
+         }
+     }
+
+     // Distinct observers, plain and filtered
+     public int subscriberCount() {
+         return async != null ? async.subscriberCount() : observers.size() + filtered.countObservers(o -> !observers.contains(o));
+     }
+
+     // Deliver everything the observer missed since its last replay; returns how many messages
+     public long replay(String subscriberId, Observer o) {
+         return replay(subscriberId, o, null);
+     }
+
+     // Same, but only the logged messages the filter matches (null = all of them)
+     public long replay(String subscriberId, Observer o, Filter filter) {
+         if (log == null) {
+             throw new IllegalStateException("Channel has no notification log");
          }
+         long[] delivered = new long[1];
+         long next = log.replay(log.committedOffset(subscriberId), (offset, topic, message) -> {
+             if (filter == null || filter.matches(topic, message)) {
+                 o.update(message);
+                 delivered[0]++;
+             }
+         });
+         log.commitOffset(subscriberId, next);
+         return delivered[0];
      }
  
      public void uploadVideo(String title) {
          System.out.println("New video uploaded: " + title);
          notifyObservers("New video: " + title);
      }
+
+     public void uploadVideo(String topic, String title) {
+         System.out.println("New " + topic + " video uploaded: " + title);
+         notifyObservers(topic, "New video: " + title);
+     }
  }
  
+ /**
+  * 🗃️ SubscriptionIndex
+  *
+  * Routes a message to the filtered subscriptions that match it, without looking at the rest:
+  * - topic filters live in a hash map topic → subscribers
+  * - keyword filters live in an inverted index word → subscribers; a message is split
+  *   into words once and each word is one lookup
+  * - predicate filters can't be indexed and are checked one by one
+  * - subscribe/unsubscribe for one observer run inside undoOf.compute, so they can't interleave,
+  *   and a topic or keyword bucket is dropped as soon as its last subscriber leaves
+  *
+  * So a publish costs (words in the message + matching subscribers + predicate filters),
+  * independent of how many topic/keyword subscribers exist.
+  */
+ class SubscriptionIndex {
+     private static final class PredicateSubscription {
+         final Observer observer;
+         final BiPredicate<String, String> predicate;
+
+         PredicateSubscription(Observer observer, BiPredicate<String, String> predicate) {
+             this.observer = observer;
+             this.predicate = predicate;
+         }
+     }
+
+     private final ConcurrentHashMap<String, SubscriberRegistry<Observer>> byTopic = new ConcurrentHashMap<>();
+     private final ConcurrentHashMap<String, SubscriberRegistry<Observer>> byKeyword = new ConcurrentHashMap<>();
+     private final SubscriberRegistry<PredicateSubscription> predicates = new SubscriberRegistry<>();
+     // for unsubscribe; each list is only touched inside undoOf.compute for its observer
+     private final ConcurrentHashMap<Observer, List<Runnable>> undoOf = new ConcurrentHashMap<>();
+
+     public void subscribe(Observer o, Filter filter) {
+         undoOf.compute(o, (k, undo) -> {
+             List<Runnable> list = undo == null ? new ArrayList<>() : undo;
+             switch (filter.kind) {
+                 case TOPIC:
+                     join(byTopic, filter.topic, o);
+                     list.add(() -> leave(byTopic, filter.topic, o));
+                     break;
+                 case KEYWORDS:
+                     for (String word : filter.keywords) {
+                         join(byKeyword, word, o);
+                         list.add(() -> leave(byKeyword, word, o));
+                     }
+                     break;
+                 default:
+                     PredicateSubscription sub = new PredicateSubscription(o, filter.predicate);
+                     predicates.subscribe(sub);
+                     list.add(() -> predicates.unsubscribe(sub));
+             }
+             return list;
+         });
+     }
+
+     public void unsubscribe(Observer o) {
+         undoOf.computeIfPresent(o, (k, undo) -> {
+             undo.forEach(Runnable::run);
+             return null;
+         });
+     }
+
+     // Bucket changes go through compute, so a subscribe can't land in a bucket that is being dropped
+     private static void join(ConcurrentHashMap<String, SubscriberRegistry<Observer>> buckets, String key, Observer o) {
+         buckets.compute(key, (k, registry) -> {
+             SubscriberRegistry<Observer> r = registry == null ? new SubscriberRegistry<>() : registry;
+             r.subscribe(o);
+             return r;
+         });
+     }
+
+     private static void leave(ConcurrentHashMap<String, SubscriberRegistry<Observer>> buckets, String key, Observer o) {
+         buckets.computeIfPresent(key, (k, registry) -> {
+             registry.unsubscribe(o);
+             return registry.size() == 0 ? null : registry;
+         });
+     }
+
+     // Number of topic + keyword buckets currently held (empty ones are removed)
+     public int bucketCount() {
+         return byTopic.size() + byKeyword.size();
+     }
+
+     public void publish(String topic, String message) {
+         publish(topic, message, o -> false);
+     }
+
+     // Observers with at least one filtered subscription that pass the test
+     public int countObservers(Predicate<Observer> test) {
+         int n = 0;
+         for (Observer o : undoOf.keySet()) {
+             if (test.test(o)) {
+                 n++;
+             }
+         }
+         return n;
+     }
+
+     // Deliver to every matching subscription (each observer at most once), except the ones
+     // "skip" says were already notified another way; topic may be null
+     public void publish(String topic, String message, Predicate<Observer> skip) {
+         if (undoOf.isEmpty()) {
+             return;
+         }
+         List<SubscriberRegistry<Observer>> hits = new ArrayList<>(4);
+         if (topic != null) {
+             SubscriberRegistry<Observer> t = byTopic.get(topic);
+             if (t != null) {
+                 hits.add(t);
+             }
+         }
+         if (!byKeyword.isEmpty()) {
+             for (String word : words(message)) {
+                 SubscriberRegistry<Observer> k = byKeyword.get(word);
+                 if (k != null) {
+                     hits.add(k);
+                 }
+             }
+         }
+         boolean anyPredicates = predicates.size() > 0;
+         if (hits.isEmpty() && !anyPredicates) {
+             return;
+         }
+         if (hits.size() == 1 && !anyPredicates) {
+             hits.get(0).forEach(o -> {  // common case: no de-duplication needed
+                 if (!skip.test(o)) {
+                     o.update(message);
+                 }
+             });
+             return;
+         }
+         Set<Observer> delivered = Collections.newSetFromMap(new IdentityHashMap<>());
+         for (SubscriberRegistry<Observer> registry : hits) {
+             registry.forEach(o -> {
+                 if (delivered.add(o) && !skip.test(o)) {
+                     o.update(message);
+                 }
+             });
+         }
+         if (anyPredicates) {
+             predicates.forEach(p -> {
+                 if (!delivered.contains(p.observer) && p.predicate.test(topic, message) && delivered.add(p.observer)
+                         && !skip.test(p.observer)) {
+                     p.observer.update(message);
+                 }
+             });
+         }
+     }
+
+     // Distinct lower-case words of a message
+     static Set<String> words(String message) {
+         Set<String> words = new HashSet<>();
+         int start = -1;
+         for (int i = 0; i <= message.length(); i++) {
+             boolean letter = i < message.length() && Character.isLetterOrDigit(message.charAt(i));
+             if (letter && start < 0) {
+                 start = i;
+             } else if (!letter && start >= 0) {
+                 words.add(message.substring(start, i).toLowerCase(Locale.ROOT));
+                 start = -1;
+             }
+         }
+         return words;
+     }
+ }
+
+ /**
+  * 📇 SubscriberRegistry
+  *
+  * Thread-safe subscriber set built for heavy churn:
+  * - subscribe / unsubscribe are O(1): each subscriber owns a slot in an array,
+  *   freed slots are recycled, and a concurrent map finds a subscriber's slot
+  * - the map entry is claimed (computeIfAbsent) before the slot is filled, so two racing
+  *   subscribes of one observer never make it visible twice
+  * - when churn leaves the array mostly empty, it is compacted, so forEach costs
+  *   O(current subscribers), not O(the peak)
+  * - forEach never locks and never throws ConcurrentModificationException
+  * - each subscription is stamped with a sequence number, so a notify delivers to exactly
+  *   the subscribers present when it started (minus any that unsubscribe before it reaches them);
+  *   subscribers added mid-notify wait for the next one
+  *
+  * Subscribing the same observer twice is a no-op.
+  */
+ class SubscriberRegistry<O> {
+     private static final int FREE = 0;
+     private static final int TAKEN = 1;
+     private static final int DEAD = 2;  // dropped by compaction; skipped if still in the free queue
+     private static final int COMPACT_ABOVE = 64;
+
+     private static final class Slot<O> {
+         volatile O subscriber;
+         volatile long since;
+         final AtomicInteger state = new AtomicInteger(TAKEN);
+     }
+
+     private final ConcurrentHashMap<O, Slot<O>> slotOf = new ConcurrentHashMap<>();
+     private final ConcurrentLinkedQueue<Slot<O>> freeSlots = new ConcurrentLinkedQueue<>();
+     private final AtomicLong sequence = new AtomicLong();
+
+     private volatile Slot<O>[] slots = newArray(16);
+     private volatile int used;  // slots[0, used) have been handed out at least once
+
+     public void subscribe(O subscriber) {
+         if (slotOf.containsKey(subscriber)) {
+             return;
+         }
+         slotOf.computeIfAbsent(subscriber, k -> {  // only one racing subscribe gets to fill a slot
+             Slot<O> slot = acquire();
+             slot.since = sequence.incrementAndGet();
+             slot.subscriber = k;  // volatile write publishes "since" too
+             return slot;
+         });
+     }
+
+     public boolean unsubscribe(O subscriber) {
+         boolean[] removed = new boolean[1];
+         slotOf.computeIfPresent(subscriber, (k, slot) -> {
+             release(slot);
+             removed[0] = true;
+             return null;
+         });
+         if (removed[0] && used > COMPACT_ABOVE && slotOf.size() < used / 4) {
+             compact();
+         }
+         return removed[0];
+     }
+
+     public void forEach(Consumer<? super O> action) {
+         long snapshot = sequence.get();
+         int n = used;  // read before the array: both writers publish the array first
+         Slot<O>[] current = slots;
+         n = Math.min(n, current.length);
+         for (int i = 0; i < n; i++) {
+             Slot<O> slot = current[i];
+             if (slot == null) {
+                 break;  // a compaction shrank the array under us
+             }
+             O subscriber = slot.subscriber;
+             if (subscriber != null && slot.since <= snapshot) {
+                 action.accept(subscriber);
+             }
+         }
+     }
+
+     public int size() {
+         return slotOf.size();
+     }
+
+     public boolean contains(O subscriber) {
+         return slotOf.containsKey(subscriber);
+     }
+
+     private Slot<O> acquire() {
+         Slot<O> slot;
+         while ((slot = freeSlots.poll()) != null) {
+             if (slot.state.compareAndSet(FREE, TAKEN)) {
+                 return slot;
+             }
+             // DEAD: compaction already dropped it from the array
+         }
+         return newSlot();
+     }
+
+     private void release(Slot<O> slot) {
+         slot.subscriber = null;
+         slot.state.set(FREE);
+         freeSlots.offer(slot);
+     }
+
+     // Keep only slots in use (or being filled); free ones are marked DEAD so nobody reuses them
+     private synchronized void compact() {
+         Slot<O>[] current = slots;
+         int n = Math.min(used, current.length);
+         if (n <= COMPACT_ABOVE || slotOf.size() >= n / 4) {
+             return;  // someone else compacted, or it filled up again
+         }
+         Slot<O>[] kept = newArray(Math.max(16, Integer.highestOneBit(Math.max(1, slotOf.size())) * 4));
+         int count = 0;
+         for (int i = 0; i < n; i++) {
+             Slot<O> slot = current[i];
+             if (slot.state.compareAndSet(FREE, DEAD)) {
+                 continue;
+             }
+             if (count == kept.length) {
+                 kept = Arrays.copyOf(kept, kept.length * 2);
+             }
+             kept[count++] = slot;
+         }
+         slots = kept;
+         used = count;
+         freeSlots.removeIf(slot -> slot.state.get() == DEAD);
+     }
+
+     // Only runs when every recycled slot is taken — the array grows geometrically, so O(1) amortized
+     private synchronized Slot<O> newSlot() {
+         Slot<O>[] current = slots;
+         if (used == current.length) {
+             current = Arrays.copyOf(current, current.length * 2);
+         }
+         Slot<O> slot = new Slot<>();
+         current[used] = slot;
+         slots = current;  // publish the array before the new high-water mark
+         used++;
+         return slot;
+     }
+
+     @SuppressWarnings("unchecked")
+     private static <O> Slot<O>[] newArray(int length) {
+         return (Slot<O>[]) new Slot<?>[length];
+     }
+ }
+
+ /**
+  * ⏳ WaitStrategy
+  *
+  * How an idle dispatcher waits for new messages — trades latency for CPU:
+  * BUSY_SPIN (lowest latency, burns a core) → YIELD → SLEEP → BLOCKING (cheapest when idle).
+  */
+ interface WaitStrategy {
+     // Wait until the counter moves past "seen" or a short timeout passes — callers re-check
+     // their own state (e.g. shutdown) in between, so no strategy may wait forever
+     void waitFor(AtomicLong counter, long seen);
+
+     // Called by publishers after each message
+     default void signal() {
+     }
+
+     WaitStrategy BUSY_SPIN = (counter, seen) -> {
+         for (int spins = 0; counter.get() == seen && spins < 100_000; spins++) {
+             Thread.onSpinWait();
+         }
+     };
+
+     WaitStrategy YIELD = (counter, seen) -> {
+         for (int spins = 0; counter.get() == seen && spins < 100; spins++) {
+             Thread.yield();
+         }
+     };
+
+     WaitStrategy SLEEP = (counter, seen) -> {
+         if (counter.get() == seen) {
+             LockSupport.parkNanos(100_000);
+         }
+     };
+
+     static WaitStrategy blocking() {
+         return new WaitStrategy() {
+             private final ReentrantLock lock = new ReentrantLock();
+             private final Condition moved = lock.newCondition();
+             private final AtomicInteger waiters = new AtomicInteger();
+
+             public void waitFor(AtomicLong counter, long seen) {
+                 lock.lock();
+                 waiters.incrementAndGet();
+                 try {
+                     if (counter.get() == seen) {
+                         moved.await(1, TimeUnit.MILLISECONDS);
+                     }
+                 } catch (InterruptedException e) {
+                     Thread.currentThread().interrupt();
+                 } finally {
+                     waiters.decrementAndGet();
+                     lock.unlock();
+                 }
+             }
+
+             public void signal() {
+                 if (waiters.get() > 0) {  // publishers only touch the lock when someone sleeps
+                     lock.lock();
+                     try {
+                         moved.signalAll();
+                     } finally {
+                         lock.unlock();
+                     }
+                 }
+             }
+         };
+     }
+ }
+
+ /**
+  * 💍 RingDispatcher
+  *
+  * Asynchronous fan-out through a preallocated ring buffer:
+  * - notifyObservers() claims a sequence, writes the message into its slot and returns —
+  *   publishers never wait for subscribers
+  * - each subscriber has its own read position; dispatcher threads drain every
+  *   subscriber in batches of up to maxBatch messages
+  * - a turn ends as soon as it runs longer than slowNanos; a subscriber that overruns
+  *   DEMOTE_AFTER turns in a row moves to one of a fixed set of slow lanes (as many as
+  *   dispatchers), and moves back after PROMOTE_AFTER turns in a row within budget —
+  *   so one GC pause doesn't demote anyone, and threads never grow with subscribers
+  * - dispatchers sleep on a count of *completed* publishes, so a message claimed but
+  *   not yet written can't be missed, and they re-check for close() after every wait
+  * - messages can carry a topic; a filtered subscription is checked against its filters on
+  *   the dispatcher thread, and messages it doesn't want are skipped without being delivered
+  * - a subscriber that falls more than one ring behind is lapped: it either skips
+  *   ahead (LAG, the skipped messages are counted as dropped) or is unsubscribed (DROP),
+  *   without slowing anyone else down
+  * - memory is fixed: capacity message slots, whatever the load
+  */
+ class RingDispatcher implements TopicSubject, AutoCloseable {
+     enum WhenLapped { LAG, DROP }
+
+     private static final long EMPTY = -1;
+     private static final long WRITING = -2;
+     static final int DEMOTE_AFTER = 3;
+     static final int PROMOTE_AFTER = 64;
+
+     // One subscriber's read position in the ring
+     private final class Subscription {
+         final Observer observer;
+         volatile SubscriberRegistry<Subscription> group;  // changes when it moves to or from a slow lane
+         volatile boolean isolated;
+         volatile Filter[] filters;  // null = every message; replaced as a whole under synchronized(this)
+         long next;     // next sequence to deliver (only touched by the owning dispatcher)
+         int overruns;  // consecutive over-budget turns (owning dispatcher only)
+         int onBudget;  // consecutive within-budget turns while in a slow lane
+         long delivered;
+         volatile long dropped;
+
+         Subscription(Observer observer, SubscriberRegistry<Subscription> group, long next) {
+             this.observer = observer;
+             this.group = group;
+             this.next = next;
+         }
+     }
+
+     private final String[] messages;
+     private final String[] topics;             // written with the message, null = no topic
+     private final AtomicLongArray published;  // sequence stored in each slot, or EMPTY / WRITING
+     private final int mask;
+     private final AtomicLong cursor = new AtomicLong();  // next sequence to claim
+     private final AtomicLong publishes = new AtomicLong();  // completed publishes — what dispatchers wait on
+     private final WaitStrategy waitStrategy;
+     private final WhenLapped whenLapped;
+     private final int maxBatch;
+     private final long slowNanos;
+
+     private final List<SubscriberRegistry<Subscription>> groups = new ArrayList<>();
+     private final List<SubscriberRegistry<Subscription>> slowLanes = new ArrayList<>();
+     private final ConcurrentHashMap<Observer, Subscription> subscriptions = new ConcurrentHashMap<>();
+     private final AtomicInteger nextGroup = new AtomicInteger();
+     private final List<Thread> dispatchers = new ArrayList<>();
+     private final LongAdder droppedTotal = new LongAdder();
+     private final LongAdder batches = new LongAdder();
+     private volatile boolean running = true;
+
+     public RingDispatcher(int capacity, int dispatcherThreads, WaitStrategy waitStrategy, WhenLapped whenLapped, int maxBatch) {
+         this(capacity, dispatcherThreads, waitStrategy, whenLapped, maxBatch, TimeUnit.MILLISECONDS.toNanos(1));
+     }
+
+     public RingDispatcher(int capacity, int dispatcherThreads, WaitStrategy waitStrategy, WhenLapped whenLapped,
+                           int maxBatch, long slowNanos) {
+         if (Integer.bitCount(capacity) != 1) {
+             throw new IllegalArgumentException("capacity must be a power of two: " + capacity);
+         }
+         if (dispatcherThreads < 1 || maxBatch < 1 || slowNanos < 1) {
+             throw new IllegalArgumentException("dispatcherThreads, maxBatch and slowNanos must be >= 1");
+         }
+         this.messages = new String[capacity];
+         this.topics = new String[capacity];
+         this.published = new AtomicLongArray(capacity);
+         for (int i = 0; i < capacity; i++) {
+             published.set(i, EMPTY);
+         }
+         this.mask = capacity - 1;
+         this.waitStrategy = waitStrategy;
+         this.whenLapped = whenLapped;
+         this.maxBatch = maxBatch;
+         this.slowNanos = slowNanos;
+
+         for (int d = 0; d < dispatcherThreads; d++) {
+             SubscriberRegistry<Subscription> group = new SubscriberRegistry<>();
+             groups.add(group);
+             Thread t = new Thread(() -> dispatchLoop(group), "ring-dispatcher-" + d);
+             t.setDaemon(true);
+             dispatchers.add(t);
+         }
+         for (int d = 0; d < dispatcherThreads; d++) {
+             SubscriberRegistry<Subscription> lane = new SubscriberRegistry<>();
+             slowLanes.add(lane);
+             Thread t = new Thread(() -> dispatchLoop(lane), "ring-slow-lane-" + d);
+             t.setDaemon(true);
+             dispatchers.add(t);
+         }
+         dispatchers.forEach(Thread::start);
+     }
+
+     public void subscribe(Observer o) {
+         subscribe(o, (Filter) null);
+     }
+
+     // Adds a filter to o's subscription; a plain subscription (null filter) receives everything
+     public void subscribe(Observer o, Filter filter) {
+         subscriptions.compute(o, (k, sub) -> {
+             if (sub == null) {
+                 SubscriberRegistry<Subscription> group = groups.get(Math.floorMod(nextGroup.getAndIncrement(), groups.size()));
+                 sub = new Subscription(o, group, cursor.get());  // sees messages from now on
+                 sub.filters = filter == null ? null : new Filter[] {filter};
+                 group.subscribe(sub);
+                 return sub;
+             }
+             synchronized (sub) {
+                 Filter[] current = sub.filters;
+                 if (filter == null) {
+                     sub.filters = null;
+                 } else if (current != null) {  // already getting everything otherwise
+                     Filter[] more = Arrays.copyOf(current, current.length + 1);
+                     more[current.length] = filter;
+                     sub.filters = more;
+                 }
+             }
+             return sub;
+         });
+     }
+
+     public void unsubscribe(Observer o) {
+         Subscription sub = subscriptions.remove(o);
+         if (sub != null) {
+             synchronized (sub) {  // don't race move() switching it between registries
+                 sub.group.unsubscribe(sub);
+             }
+         }
+     }
+
+     public void notifyObservers(String message) {
+         notifyObservers(null, message);
+     }
+
+     // Publish: claim a slot, fill it, mark it with its sequence. Never blocks on subscribers.
+     public void notifyObservers(String topic, String message) {
+         long seq = cursor.getAndIncrement();
+         int idx = (int) (seq & mask);
+         for (;;) {
+             long current = published.get(idx);
+             if (current == WRITING) {
+                 Thread.onSpinWait();  // another publisher is still filling this slot
+             } else if (current > seq) {
+                 return;  // a later lap already reused the slot — this message is already overwritten
+             } else if (published.compareAndSet(idx, current, WRITING)) {
+                 break;
+             }
+         }
+         messages[idx] = message;
+         topics[idx] = topic;
+         published.set(idx, seq);  // volatile write publishes the message and its topic
+         publishes.incrementAndGet();
+         waitStrategy.signal();
+     }
+
+     private void dispatchLoop(SubscriberRegistry<Subscription> group) {
+         long[] deliveredThisPass = new long[1];
+         while (running) {
+             // Read before draining: any publish that completes later bumps the counter and ends the wait
+             long seen = publishes.get();
+             deliveredThisPass[0] = 0;
+             group.forEach(sub -> deliveredThisPass[0] += drain(sub));
+             if (deliveredThisPass[0] == 0) {
+                 waitStrategy.waitFor(publishes, seen);
+             }
+         }
+     }
+
+     // Deliver up to maxBatch messages to one subscriber; returns how many were delivered
+     private int drain(Subscription sub) {
+         long turnStart = System.nanoTime();
+         boolean overran = false;
+         int count = 0;
+         while (count < maxBatch) {
+             long head = cursor.get();
+             if (head - sub.next > messages.length) {  // lapped: the slot for "next" has been reused
+                 if (!lapped(sub, head - messages.length)) {
+                     break;
+                 }
+                 continue;
+             }
+             if (sub.next >= head) {
+                 break;  // caught up
+             }
+             int idx = (int) (sub.next & mask);
+             if (published.get(idx) != sub.next) {
+                 break;  // not written yet (or being overwritten — the lap check above will catch it)
+             }
+             String message = messages[idx];
+             String topic = topics[idx];
+             VarHandle.loadLoadFence();
+             if (published.get(idx) != sub.next) {
+                 continue;  // overwritten while reading — re-check for a lap
+             }
+             if (wants(sub.filters, topic, message)) {
+                 try {
+                     sub.observer.update(message);
+                 } catch (RuntimeException e) {
+                     // a failing observer must not take the dispatcher (and its other subscribers) down
+                 }
+                 sub.delivered++;
+             }
+             sub.next++;
+             count++;  // skipped messages count too: they are progress, and they use up the turn
+             if (System.nanoTime() - turnStart > slowNanos) {
+                 overran = true;  // over budget: end the turn so the others on this thread get theirs
+                 break;
+             }
+         }
+         if (count > 0) {
+             batches.increment();
+             adjustLane(sub, overran);
+         }
+         return count;
+     }
+
+     private static boolean wants(Filter[] filters, String topic, String message) {
+         if (filters == null) {
+             return true;
+         }
+         for (Filter filter : filters) {
+             if (filter.matches(topic, message)) {
+                 return true;
+             }
+         }
+         return false;
+     }
+
+     // Demote after DEMOTE_AFTER overruns in a row, promote back after PROMOTE_AFTER good turns in a row
+     private void adjustLane(Subscription sub, boolean overran) {
+         if (overran) {
+             sub.onBudget = 0;
+             if (!sub.isolated && ++sub.overruns >= DEMOTE_AFTER) {
+                 move(sub, leastLoaded(slowLanes), true);
+             }
+         } else {
+             sub.overruns = 0;
+             if (sub.isolated && ++sub.onBudget >= PROMOTE_AFTER) {
+                 move(sub, groups.get(Math.floorMod(nextGroup.getAndIncrement(), groups.size())), false);
+             }
+         }
+     }
+
+     // Only the thread currently draining sub calls this; the target's thread sees sub's
+     // fields through the registry's volatile publish
+     private void move(Subscription sub, SubscriberRegistry<Subscription> target, boolean isolated) {
+         synchronized (sub) {
+             if (subscriptions.get(sub.observer) != sub) {
+                 return;  // already unsubscribed
+             }
+             sub.group.unsubscribe(sub);
+             sub.isolated = isolated;
+             sub.overruns = 0;
+             sub.onBudget = 0;
+             sub.group = target;
+             target.subscribe(sub);
+         }
+     }
+
+     private static <S> SubscriberRegistry<S> leastLoaded(List<SubscriberRegistry<S>> lanes) {
+         SubscriberRegistry<S> best = lanes.get(0);
+         for (SubscriberRegistry<S> lane : lanes) {
+             if (lane.size() < best.size()) {
+                 best = lane;
+             }
+         }
+         return best;
+     }
+
+     // Subscribers currently in a slow lane
+     public int isolatedCount() {
+         int n = 0;
+         for (Subscription sub : subscriptions.values()) {
+             if (sub.isolated) {
+                 n++;
+             }
+         }
+         return n;
+     }
+
+     // Returns true if the subscriber should keep going from the oldest message still in the ring
+     private boolean lapped(Subscription sub, long oldest) {
+         long skipped = oldest - sub.next;
+         sub.dropped += skipped;
+         droppedTotal.add(skipped);
+         sub.next = oldest;
+         if (whenLapped == WhenLapped.DROP) {
+             unsubscribe(sub.observer);
+             return false;
+         }
+         return true;
+     }
+
+     public int subscriberCount() {
+         return subscriptions.size();
+     }
+
+     public long publishedCount() {
+         return cursor.get();
+     }
+
+     public long droppedCount() {
+         return droppedTotal.sum();
+     }
+
+     public long batchCount() {
+         return batches.sum();
+     }
+
+     // How far behind the publishers one subscriber is (0 = caught up)
+     public long lag(Observer o) {
+         Subscription sub = subscriptions.get(o);
+         return sub == null ? 0 : Math.max(0, cursor.get() - sub.next);
+     }
+
+     public void close() {
+         running = false;
+         waitStrategy.signal();
+         for (Thread t : dispatchers) {
+             try {
+                 t.join(1000);
+             } catch (InterruptedException e) {
+                 Thread.currentThread().interrupt();
+             }
+         }
+     }
+ }
+
+ /**
+  * 📼 NotificationLog
+  *
+  * Durable, append-only log of notifications, split into fixed-size memory-mapped segments.
+  * - append() copies the message (and its topic, if any) into the mapped active segment
+  *   and returns its offset; replay hands both back, so replays can be filtered
+  * - a background flusher forces new data to disk every flushInterval ("group commit"),
+  *   so one fsync covers every append in the interval; appendAndSync() waits for it
+  * - replay(offset) reads records straight from the mapped segments, in order
+  * - per-subscriber offsets are saved next to the log, so restarted observers resume
+  * - rolling to a new segment only swaps segments under the append lock; the flusher
+  *   thread forces sealed segments and deletes the ones past retention
+  * - only the newest retainSegments segments are kept
+  * - offset files are written to a temp file, forced, then atomically renamed
+  *
+  * Record layout: int (length + 1), int CRC32C, then a payload of int (topic length + 1, 0 = no topic),
+  * topic UTF-8, message UTF-8. A 0 header marks the end of a segment, and the CRC (over the payload)
+  * lets recovery stop at a record that was torn by a crash.
+  */
+ class NotificationLog implements AutoCloseable {
+     interface Visitor {
+         void visit(long offset, String topic, String message);
+     }
+
+     private static final int HEADER_BYTES = 8;
+
+     private static final class Segment {
+         final long base;  // log offset of the segment's first byte
+         final Path file;
+         final MappedByteBuffer map;
+         int size;         // bytes of records written
+
+         Segment(long base, Path file, MappedByteBuffer map) {
+             this.base = base;
+             this.file = file;
+             this.map = map;
+         }
+     }
+
+     private final Path dir;
+     private final int segmentBytes;
+     private final int retainSegments;
+     private final ConcurrentSkipListMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+     private final ConcurrentLinkedQueue<Segment> sealed = new ConcurrentLinkedQueue<>();  // rolled, not yet forced
+     private final Thread flusher;
+     private final Object flushed = new Object();  // appendAndSync waiters park here
+     private final Object forcing = new Object();  // one fsync at a time, so "durable" only moves forward
+
+     private Segment active;                 // guarded by "this"
+     private volatile long end;              // offset just past the last appended record
+     private volatile long durable;          // offset up to which data has been forced to disk
+     private volatile boolean open = true;
+
+     public NotificationLog(Path dir, int segmentBytes, int retainSegments, long flushIntervalMillis) throws IOException {
+         if (segmentBytes <= HEADER_BYTES || retainSegments < 1 || flushIntervalMillis < 1) {
+             throw new IllegalArgumentException("segmentBytes, retainSegments and flushIntervalMillis are too small");
+         }
+         this.dir = Files.createDirectories(dir);
+         this.segmentBytes = segmentBytes;
+         this.retainSegments = retainSegments;
+         recover();
+         this.flusher = new Thread(() -> {
+             while (open) {
+                 LockSupport.parkNanos(flushIntervalMillis * 1_000_000L);
+                 flush();
+             }
+         }, "notification-log-flusher");
+         flusher.setDaemon(true);
+         flusher.start();
+     }
+
+     public long append(String message) {
+         return append(null, message);
+     }
+
+     // Returns the record's offset; topic may be null
+     public synchronized long append(String topic, String message) {
+         if (!open) {
+             throw new IllegalStateException("NotificationLog is closed");
+         }
+         byte[] utf8 = encode(topic, message);
+         int recordBytes = HEADER_BYTES + utf8.length;
+         if (recordBytes + HEADER_BYTES > segmentBytes) {
+             throw new IllegalArgumentException("Message too large for a " + segmentBytes + "-byte segment");
+         }
+         if (active.size + recordBytes + HEADER_BYTES > segmentBytes) {  // keep room for the end marker
+             roll();
+         }
+         Segment seg = active;
+         int pos = seg.size;
+         CRC32C crc = new CRC32C();
+         crc.update(utf8);
+         seg.map.put(pos + HEADER_BYTES, utf8);
+         seg.map.putInt(pos + 4, (int) crc.getValue());
+         seg.map.putInt(pos, utf8.length + 1);  // header last: a record is valid only once complete
+         seg.size = pos + recordBytes;
+         long offset = seg.base + pos;
+         end = seg.base + seg.size;
+         return offset;
+     }
+
+     public long appendAndSync(String message) {
+         return appendAndSync(null, message);
+     }
+
+     // Append and wait until the record is on disk (shares the fsync with concurrent appenders)
+     public long appendAndSync(String topic, String message) {
+         long offset = append(topic, message);
+         long target = end;
+         LockSupport.unpark(flusher);
+         synchronized (flushed) {
+             while (durable < target && open) {
+                 try {
+                     flushed.wait(10);
+                 } catch (InterruptedException e) {
+                     Thread.currentThread().interrupt();
+                     break;
+                 }
+             }
+         }
+         return offset;
+     }
+
+     // Read records from "from" up to the current end; returns the offset to resume from next time
+     public long replay(long from, Visitor visitor) {
+         long stop = end;
+         long position = Math.max(from, firstOffset());
+         Long first = segments.floorKey(position);
+         for (Segment seg : segments.tailMap(first != null ? first : segments.firstKey()).values()) {
+             if (seg.base >= stop) {
+                 break;
+             }
+             MappedByteBuffer view = seg.map;  // absolute reads only, safe to share
+             int pos = (int) Math.max(0, position - seg.base);
+             while (seg.base + pos < stop && pos + HEADER_BYTES <= segmentBytes) {
+                 int header = view.getInt(pos);
+                 if (header == 0) {
+                     break;
+                 }
+                 byte[] payload = new byte[header - 1];
+                 view.get(pos + HEADER_BYTES, payload);
+                 int topicBytes = ByteBuffer.wrap(payload).order(ByteOrder.LITTLE_ENDIAN).getInt() - 1;
+                 int messageStart = Integer.BYTES + Math.max(topicBytes, 0);
+                 visitor.visit(seg.base + pos,
+                         topicBytes < 0 ? null : new String(payload, Integer.BYTES, topicBytes, StandardCharsets.UTF_8),
+                         new String(payload, messageStart, payload.length - messageStart, StandardCharsets.UTF_8));
+                 pos += HEADER_BYTES + payload.length;
+             }
+             position = seg.base + segmentBytes;
+         }
+         return Math.max(stop, from);
+     }
+
+     public long firstOffset() {
+         return segments.firstKey();
+     }
+
+     public long endOffset() {
+         return end;
+     }
+
+     public long durableOffset() {
+         return durable;
+     }
+
+     public void commitOffset(String subscriberId, long offset) {
+         Path file = offsetFile(subscriberId);
+         Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+         try {
+             try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                     StandardOpenOption.TRUNCATE_EXISTING)) {
+                 ByteBuffer buf = ByteBuffer.wrap(Long.toString(offset).getBytes(StandardCharsets.US_ASCII));
+                 while (buf.hasRemaining()) {
+                     ch.write(buf);
+                 }
+                 ch.force(true);  // the rename must never expose an empty file
+             }
+             Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+             forceDirectory();
+         } catch (IOException e) {
+             throw new UncheckedIOException(e);
+         }
+     }
+
+     // Where a subscriber should resume (the start of the log if it never committed,
+     // or if the offset file is unreadable — replaying again beats skipping messages)
+     public long committedOffset(String subscriberId) {
+         Path file = offsetFile(subscriberId);
+         try {
+             if (!Files.exists(file)) {
+                 return firstOffset();
+             }
+             return Math.max(Long.parseLong(Files.readString(file).trim()), firstOffset());
+         } catch (NumberFormatException e) {
+             return firstOffset();
+         } catch (IOException e) {
+             throw new UncheckedIOException(e);
+         }
+     }
+
+     public void flush() {
+         Segment seg;
+         long target;
+         int size;
+         synchronized (this) {
+             seg = active;
+             target = end;
+             size = seg.size;
+         }
+         synchronized (forcing) {
+             for (Segment done; (done = sealed.poll()) != null; ) {
+                 done.map.force(0, done.size);  // sealed before our snapshot, so it's all below "target"
+             }
+             if (target > durable) {
+                 seg.map.force(0, size);
+                 durable = target;
+             }
+         }
+         synchronized (flushed) {
+             flushed.notifyAll();
+         }
+         applyRetention();
+     }
+
+     public void close() {
+         flush();
+         open = false;
+         LockSupport.unpark(flusher);
+         try {
+             flusher.join(1000);
+         } catch (InterruptedException e) {
+             Thread.currentThread().interrupt();
+         }
+     }
+
+     private static byte[] encode(String topic, String message) {
+         byte[] topicUtf8 = topic == null ? new byte[0] : topic.getBytes(StandardCharsets.UTF_8);
+         byte[] messageUtf8 = message.getBytes(StandardCharsets.UTF_8);
+         return ByteBuffer.allocate(Integer.BYTES + topicUtf8.length + messageUtf8.length).order(ByteOrder.LITTLE_ENDIAN)
+                 .putInt(topic == null ? 0 : topicUtf8.length + 1).put(topicUtf8).put(messageUtf8).array();
+     }
+
+     // Seal the active segment and start a new one; the flusher forces it and applies retention
+     private void roll() {
+         long base = active.base + segmentBytes;
+         Segment next;
+         try {
+             next = openSegment(base);
+         } catch (IOException e) {
+             throw new UncheckedIOException(e);
+         }
+         sealed.offer(active);
+         active = next;
+         segments.put(base, next);
+         LockSupport.unpark(flusher);
+     }
+
+     private void applyRetention() {
+         while (segments.size() > retainSegments) {
+             Map.Entry<Long, Segment> oldest = segments.firstEntry();
+             try {
+                 Files.deleteIfExists(oldest.getValue().file);  // an in-progress replay keeps its mapping
+             } catch (IOException e) {
+                 return;  // runs on the flusher: leave the segment in place and retry next interval
+             }
+             segments.remove(oldest.getKey());
+         }
+     }
+
+     // Make a rename durable; not every platform can open a directory, so that's best effort
+     private void forceDirectory() {
+         try (FileChannel ch = FileChannel.open(dir, StandardOpenOption.READ)) {
+             ch.force(true);
+         } catch (IOException e) {
+             // e.g. Windows: the rename is still atomic, just not forced yet
+         }
+     }
+
+     // Reopen existing segments; find the end of the last one, stopping at a torn record
+     private void recover() throws IOException {
+         try (var files = Files.list(dir)) {
+             for (Path file : (Iterable<Path>) files.filter(f -> f.toString().endsWith(".log"))::iterator) {
+                 String name = file.getFileName().toString();
+                 long base = Long.parseLong(name.substring(0, name.length() - ".log".length()));
+                 segments.put(base, openSegment(base));
+             }
+         }
+         if (segments.isEmpty()) {
+             segments.put(0L, openSegment(0));
+         }
+         active = segments.lastEntry().getValue();
+         int pos = 0;
+         CRC32C crc = new CRC32C();
+         while (pos + HEADER_BYTES <= segmentBytes) {
+             int header = active.map.getInt(pos);
+             int length = header - 1;
+             if (header <= 0 || pos + HEADER_BYTES + length > segmentBytes) {
+                 break;
+             }
+             byte[] utf8 = new byte[length];
+             active.map.get(pos + HEADER_BYTES, utf8);
+             crc.reset();
+             crc.update(utf8);
+             if ((int) crc.getValue() != active.map.getInt(pos + 4)) {
+                 break;
+             }
+             pos += HEADER_BYTES + length;
+         }
+         if (pos + HEADER_BYTES <= segmentBytes) {
+             active.map.putInt(pos, 0);  // cut off anything torn
+         }
+         active.size = pos;
+         end = active.base + pos;
+         durable = end;
+     }
+
+     private Segment openSegment(long base) throws IOException {
+         Path file = dir.resolve(String.format("%020d.log", base));
+         try (FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+             MappedByteBuffer map = ch.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+             map.order(ByteOrder.LITTLE_ENDIAN);
+             return new Segment(base, file, map);
+         }
+     }
+
+     private Path offsetFile(String subscriberId) {
+         if (!subscriberId.matches("[A-Za-z0-9._-]+")) {
+             throw new IllegalArgumentException("Subscriber id must be a plain file name: " + subscriberId);
+         }
+         return dir.resolve(subscriberId + ".offset");
+     }
+ }
+
  class User implements Observer {
      private String name;
  
@@ -63,7 +1289,7 @@
  }
  
  public class ObserverPattern {
-     public static void main(String[] args) {
+     public static void main(String[] args) throws IOException {
          Channel channel = new Channel();
  
          Observer jeff = new User("Jeff");
@@ -73,6 +1299,181 @@
          channel.subscribe(naqeeb);
  
          channel.uploadVideo("Observer Pattern in Java ");
+
+         // Async mode: the upload returns right away, a dispatcher thread notifies subscribers
+         try (RingDispatcher ring = new RingDispatcher(1024, 1, WaitStrategy.blocking(), RingDispatcher.WhenLapped.LAG, 64)) {
+             Channel asyncChannel = new Channel(ring);
+             asyncChannel.subscribe(jeff);
+             asyncChannel.uploadVideo("Ring Buffers in Java ");
+             while (ring.lag(jeff) > 0) {
+                 Thread.onSpinWait();
+             }
+         }
+
+         // Filtered subscriptions: only matching uploads reach these observers
+         Channel topics = new Channel();
+         topics.subscribe(new User("Gamer Gabe"), Filter.topic("gaming"));
+         topics.subscribe(new User("Java Jen"), Filter.keywords("java"));
+         topics.uploadVideo("gaming", "Speedrun Highlights ");
+         topics.uploadVideo("coding", "Java Records Explained ");
+
+         // Logged channel: a late subscriber catches up on what it missed
+         Path logDir = Files.createTempDirectory("channel-log");
+         try (NotificationLog log = new NotificationLog(logDir, 1 << 20, 4, 5)) {
+             Channel loggedChannel = new Channel().withLog(log);
+             loggedChannel.uploadVideo("Episode 1 ");
+             loggedChannel.uploadVideo("Episode 2 ");
+             Observer lateUser = new User("Late Larry");
+             System.out.println("Replayed " + loggedChannel.replay("late-larry", lateUser) + " missed notifications");
+         } finally {
+             try (var files = Files.list(logDir)) {
+                 for (Path f : (Iterable<Path>) files::iterator) {
+                     Files.delete(f);
+                 }
+             }
+             Files.delete(logDir);
+         }
+     }
+ }
+
+ /**
+  * ⏱️ ChurnBenchmark
+  *
+  * Publishers keep notifying a Channel while other threads constantly
+  * subscribe and unsubscribe; prints notify and churn rates.
+  *
+  * Run: java ChurnBenchmark [subscribers] [publisherThreads] [churnThreads] [seconds]
+  */
+ class ChurnBenchmark {
+     // Counts deliveries instead of printing them
+     static final class CountingObserver implements Observer {
+         static final LongAdder DELIVERED = new LongAdder();
+
+         public void update(String message) {
+             DELIVERED.increment();
+         }
+     }
+
+     public static void main(String[] args) throws InterruptedException {
+         int subscribers = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+         int publishers = args.length > 1 ? Integer.parseInt(args[1]) : 2;
+         int churners = args.length > 2 ? Integer.parseInt(args[2]) : 2;
+         int seconds = args.length > 3 ? Integer.parseInt(args[3]) : 5;
+
+         Channel channel = new Channel();
+         CountingObserver[] pool = new CountingObserver[subscribers * 2];
+         for (int i = 0; i < pool.length; i++) {
+             pool[i] = new CountingObserver();
+             if (i % 2 == 0) {
+                 channel.subscribe(pool[i]);
+             }
+         }
+
+         LongAdder notifies = new LongAdder();
+         LongAdder churn = new LongAdder();
+         long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+         List<Thread> threads = new ArrayList<>();
+         for (int p = 0; p < publishers; p++) {
+             threads.add(new Thread(() -> {
+                 while (System.nanoTime() < deadline) {
+                     channel.notifyObservers("tick");
+                     notifies.increment();
+                 }
+             }));
+         }
+         for (int c = 0; c < churners; c++) {
+             int seed = c;
+             threads.add(new Thread(() -> {
+                 Random random = new Random(seed);
+                 while (System.nanoTime() < deadline) {
+                     Observer o = pool[random.nextInt(pool.length)];
+                     channel.unsubscribe(o);
+                     channel.subscribe(pool[random.nextInt(pool.length)]);
+                     churn.add(2);
+                 }
+             }));
+         }
+         threads.forEach(Thread::start);
+         for (Thread t : threads) {
+             t.join();
+         }
+
+         System.out.printf("%d subscribers: %.0f notifies/s, %.1f M deliveries/s, %.2f M churn ops/s%n",
+                 channel.subscriberCount(), notifies.sum() / (double) seconds,
+                 CountingObserver.DELIVERED.sum() / 1e6 / seconds, churn.sum() / 1e6 / seconds);
+     }
+ }
+
+ /**
+  * ⏱️ RingBenchmark
+  *
+  * Publishes messages through a RingDispatcher to fast subscribers plus one
+  * deliberately slow one that shares a dispatcher thread with counters[0],
+  * and shows how long that neighbour waits before the slow one is moved to its own lane.
+  *
+  * Run: java RingBenchmark [messages] [subscribers] [dispatchers]
+  */
+ class RingBenchmark {
+     static final class Counter implements Observer {
+         long count;  // written only by its dispatcher thread
+
+         public void update(String message) {
+             count++;
+         }
+     }
+
+     static final class SlowObserver implements Observer {
+         long count;
+
+         public void update(String message) {
+             count++;
+             LockSupport.parkNanos(50_000);
+         }
+     }
+
+     public static void main(String[] args) {
+         int messages = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+         int subscribers = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+         int dispatchers = args.length > 2 ? Integer.parseInt(args[2]) : 2;
+
+         try (RingDispatcher ring = new RingDispatcher(1 << 16, dispatchers, WaitStrategy.YIELD,
+                 RingDispatcher.WhenLapped.LAG, 1024)) {
+             Counter[] counters = new Counter[subscribers];
+             for (int i = 0; i < subscribers; i++) {
+                 counters[i] = new Counter();
+                 ring.subscribe(counters[i]);
+             }
+             for (int i = subscribers; i % dispatchers != 0; i++) {
+                 ring.subscribe(new Counter());  // pad so round-robin puts the slow one next to counters[0]
+             }
+             SlowObserver slow = new SlowObserver();
+             ring.subscribe(slow);
+
+             // Neighbour check: how long until counters[0] has a burst the slow one is still chewing on?
+             long probe = System.nanoTime();
+             for (int i = 0; i < 200; i++) {
+                 ring.notifyObservers("probe");
+             }
+             while (ring.lag(counters[0]) > 0) {
+                 Thread.yield();
+             }
+             System.out.printf("neighbour of the slow subscriber caught up in %.2f ms (slow ones isolated: %d)%n",
+                     (System.nanoTime() - probe) / 1e6, ring.isolatedCount());
+
+             long start = System.nanoTime();
+             for (int i = 0; i < messages; i++) {
+                 ring.notifyObservers("msg");
+             }
+             long publishNs = System.nanoTime() - start;
+             while (ring.lag(counters[0]) > 0) {
+                 Thread.yield();
+             }
+             long drainNs = System.nanoTime() - start;
+
+             System.out.printf("publish %.1f M msgs/s, fan-out %.1f M deliveries/s to %d subscribers, %d batches%n",
+                     messages * 1e3 / publishNs, (double) messages * subscribers * 1e3 / drainNs, subscribers, ring.batchCount());
+             System.out.printf("slow subscriber got %,d and dropped %,d; total dropped %,d%n",
+                     slow.count, messages - slow.count - ring.lag(slow), ring.droppedCount());
+         }
      }
  }
- 
\ No newline at end of file
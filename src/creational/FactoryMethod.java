@@ -15,10 +15,34 @@
  * - Promotes flexibility and abstraction in object creation
  */
 
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayDeque;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
 // Product interface
 
 interface Pizza {
     void prepare();
+
+    // Pooling hook: clear per-order state before the pizza is reused (see PizzaPool)
+    default void reset() {
+    }
 }
 
 // Concrete Products
@@ -36,11 +60,30 @@ class VeggiePizza implements Pizza {
 
 // Factory (Creator)
 abstract class PizzaStore {
+    private PizzaPool pool;  // optional — null means a new Pizza per order
+
     public void orderPizza() {
+        if (pool != null) {
+            try (PizzaPool.Lease lease = pool.acquire()) {
+                lease.pizza().prepare();
+            }
+            return;
+        }
         Pizza pizza = createPizza();
         pizza.prepare();
     }
 
+    // Reuse pizzas from a bounded pool instead of allocating one per order
+    public PizzaStore enablePooling(int capacity) {
+        pool = new PizzaPool(this::createPizza, capacity, PizzaPool.DEFAULT_LOCAL_CAPACITY);
+        pool.prewarm(capacity);
+        return this;
+    }
+
+    public PizzaPool pool() {
+        return pool;
+    }
+
     // Factory Method — subclasses decide which Pizza to create
     protected abstract Pizza createPizza();
 }
@@ -58,6 +101,451 @@ class VeggiePizzaStore extends PizzaStore {
     }
 }
 
+/**
+ * 🗂️ PizzaRegistry
+ *
+ * One store for every product: a product name maps to a pre-bound constructor.
+ * - create(name) is one concurrent-map read plus a direct constructor call
+ * - products can be registered (or replaced) at runtime
+ * - register(name, Class) turns the no-arg constructor into a real Supplier
+ *   with LambdaMetafactory once, so no reflection happens per order
+ */
+class PizzaRegistry {
+    private final ConcurrentHashMap<String, Supplier<? extends Pizza>> factories = new ConcurrentHashMap<>();
+
+    public PizzaRegistry register(String name, Supplier<? extends Pizza> factory) {
+        factories.put(name, factory);
+        return this;
+    }
+
+    public PizzaRegistry register(String name, Class<? extends Pizza> type) {
+        return register(name, constructorOf(type));
+    }
+
+    public boolean unregister(String name) {
+        return factories.remove(name) != null;
+    }
+
+    public Pizza create(String name) {
+        Supplier<? extends Pizza> factory = factories.get(name);
+        if (factory == null) {
+            throw new IllegalArgumentException("Unknown pizza: " + name);
+        }
+        return factory.get();
+    }
+
+    public Set<String> names() {
+        return factories.keySet();
+    }
+
+    // Bind type::new as a Supplier — same speed as a hand-written lambda once the JIT sees it
+    @SuppressWarnings("unchecked")
+    private static <P extends Pizza> Supplier<P> constructorOf(Class<P> type) {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            MethodHandle ctor = lookup.findConstructor(type, MethodType.methodType(void.class));
+            return (Supplier<P>) LambdaMetafactory.metafactory(lookup, "get",
+                    MethodType.methodType(Supplier.class),
+                    MethodType.methodType(Object.class),
+                    ctor,
+                    MethodType.methodType(type))
+                    .getTarget().invokeExact();
+        } catch (Throwable e) {
+            throw new IllegalArgumentException("No accessible no-arg constructor for " + type.getName(), e);
+        }
+    }
+}
+
+// Creator backed by a registry instead of one subclass per product
+class RegistryPizzaStore {
+    private final PizzaRegistry registry;
+
+    public RegistryPizzaStore(PizzaRegistry registry) {
+        this.registry = registry;
+    }
+
+    public void orderPizza(String name) {
+        Pizza pizza = registry.create(name);
+        pizza.prepare();
+    }
+}
+
+/**
+ * ♻️ PizzaPool
+ *
+ * Bounded object pool for products of a factory method.
+ * - acquire() checks the calling thread's own small cache first, then a shared queue,
+ *   and only then calls the factory
+ * - leases are pooled with their pizza, so acquire() allocates nothing on a hit;
+ *   each acquire bumps the lease's generation, and close() / pizza() check it
+ * - a holder that keeps a lease around can pin its generation with stamp() and
+ *   close(stamp), so a stale close after the lease was re-acquired is rejected
+ * - the bound covers the per-thread caches too: at most capacity leases are retained,
+ *   returned pizzas are reset() before reuse, and extras beyond the bound are dropped
+ *   (leases parked in the cache of a thread that exits stay counted; size localCapacity
+ *   for long-lived worker threads)
+ * - hit / miss / drop counters show how well the pool is sized
+ */
+class PizzaPool {
+    static final int DEFAULT_LOCAL_CAPACITY = 8;
+
+    // A pooled hold on a pizza; odd generations are leased, even ones are back in the pool
+    final class Lease implements AutoCloseable {
+        private final Pizza pizza;
+        private final AtomicInteger generation = new AtomicInteger();
+
+        private Lease(Pizza pizza) {
+            this.pizza = pizza;
+        }
+
+        // Generation of the current hold; pass it to close(int) to reject stale closes
+        public int stamp() {
+            int g = generation.get();
+            if ((g & 1) == 0) {
+                throw new IllegalStateException("Lease was already returned to the pool");
+            }
+            return g;
+        }
+
+        public Pizza pizza() {
+            stamp();
+            return pizza;
+        }
+
+        public void close() {
+            close(stamp());
+        }
+
+        public void close(int stamp) {
+            if ((stamp & 1) == 0 || !generation.compareAndSet(stamp, stamp + 1)) {
+                throw new IllegalStateException("Lease was already returned to the pool");
+            }
+            release(this);
+        }
+
+        private Lease open() {
+            generation.incrementAndGet();
+            return this;
+        }
+    }
+
+    private final Supplier<? extends Pizza> factory;
+    private final ArrayBlockingQueue<Lease> shared;
+    private final int capacity;
+    private final int localCapacity;
+    private final ThreadLocal<ArrayDeque<Lease>> local;
+    private final AtomicInteger retained = new AtomicInteger();  // leases in shared + all local caches
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder drops = new LongAdder();
+
+    public PizzaPool(Supplier<? extends Pizza> factory, int capacity, int localCapacity) {
+        if (capacity < 1 || localCapacity < 0) {
+            throw new IllegalArgumentException("capacity must be >= 1 and localCapacity >= 0");
+        }
+        this.factory = factory;
+        this.shared = new ArrayBlockingQueue<>(capacity);
+        this.capacity = capacity;
+        this.localCapacity = Math.min(localCapacity, capacity);
+        this.local = ThreadLocal.withInitial(() -> new ArrayDeque<>(this.localCapacity));
+    }
+
+    // Fill the shared queue up front so the first orders don't allocate
+    public void prewarm(int count) {
+        for (int i = 0; i < count && reserveSlot(); i++) {
+            shared.offer(new Lease(factory.get()));
+        }
+    }
+
+    public Lease acquire() {
+        Lease lease = local.get().pollLast();
+        if (lease == null) {
+            lease = shared.poll();
+        }
+        if (lease == null) {
+            misses.increment();
+            return new Lease(factory.get()).open();
+        }
+        retained.decrementAndGet();
+        hits.increment();
+        return lease.open();
+    }
+
+    // Only reached from the one successful Lease.close(), so a lease is never pooled twice
+    private void release(Lease lease) {
+        if (!reserveSlot()) {
+            drops.increment();  // pool is full — let the GC have it
+            return;
+        }
+        lease.pizza.reset();
+        ArrayDeque<Lease> mine = local.get();
+        if (mine.size() < localCapacity) {
+            mine.addLast(lease);
+        } else {
+            shared.offer(lease);  // retained <= capacity, so there is always room
+        }
+    }
+
+    private boolean reserveSlot() {
+        int n;
+        do {
+            n = retained.get();
+            if (n >= capacity) {
+                return false;
+            }
+        } while (!retained.compareAndSet(n, n + 1));
+        return true;
+    }
+
+    // Leases currently sitting in the pool, shared queue and thread caches together
+    public int retainedCount() {
+        return retained.get();
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public long dropCount() {
+        return drops.sum();
+    }
+
+    public double hitRate() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return total == 0 ? 1.0 : (double) h / total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("PizzaPool[hits=%d, misses=%d, drops=%d, retained=%d, hitRate=%.3f]",
+                hitCount(), missCount(), dropCount(), retainedCount(), hitRate());
+    }
+}
+
+/**
+ * 🚚 AsyncPizzaStore
+ *
+ * Asynchronous front end for a factory: orders go into a bounded queue and are
+ * created + prepared on a fixed pool of worker threads. Each order gets a future.
+ * - REJECT: when queue + workers are full, the order fails fast with RejectedExecutionException
+ * - BLOCK:  when full, the ordering thread waits for room (backpressure); if it is
+ *   interrupted while waiting, the order fails with InterruptedException
+ * - close() lets queued orders finish for up to a minute, then stops the workers and
+ *   fails the futures of orders that never started with CancellationException
+ * - exposes queue depth, throughput and latency percentiles (submit → ready)
+ */
+class AsyncPizzaStore implements AutoCloseable {
+    enum WhenFull { REJECT, BLOCK }
+
+    // One queued order; kept as a named task so close() can fail the ones it drains
+    private final class Order implements Runnable {
+        final CompletableFuture<Pizza> future = new CompletableFuture<>();
+        final long submitted = System.nanoTime();
+
+        public void run() {
+            try {
+                Pizza pizza = factory.get();
+                pizza.prepare();
+                latency.record(System.nanoTime() - submitted);
+                completed.increment();
+                future.complete(pizza);
+            } catch (Throwable e) {
+                failed.increment();
+                future.completeExceptionally(e);
+            } finally {
+                capacity.release();
+            }
+        }
+
+        void cancel() {
+            capacity.release();
+            failed.increment();
+            future.completeExceptionally(new CancellationException("Store closed before the order was prepared"));
+        }
+    }
+
+    private final Supplier<? extends Pizza> factory;
+    private final ThreadPoolExecutor workers;
+    private final Semaphore capacity;  // orders waiting + orders being prepared
+    private final WhenFull whenFull;
+
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final long startNanos = System.nanoTime();
+
+    public AsyncPizzaStore(PizzaStore store, int threads, int queueCapacity, WhenFull whenFull) {
+        this(store::createPizza, threads, queueCapacity, whenFull);
+    }
+
+    public AsyncPizzaStore(Supplier<? extends Pizza> factory, int threads, int queueCapacity, WhenFull whenFull) {
+        if (threads < 1 || queueCapacity < 1) {
+            throw new IllegalArgumentException("threads and queueCapacity must be >= 1");
+        }
+        this.factory = factory;
+        this.whenFull = whenFull;
+        this.capacity = new Semaphore(threads + queueCapacity);
+        AtomicInteger ids = new AtomicInteger();
+        // The semaphore is the bound; the executor's own queue never has to reject
+        this.workers = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), r -> {
+                    Thread t = new Thread(r, "pizza-worker-" + ids.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+    }
+
+    public CompletableFuture<Pizza> orderPizza() {
+        try {
+            if (!reserve()) {
+                rejected.increment();
+                return CompletableFuture.failedFuture(new RejectedExecutionException("Pizza queue is full"));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();  // the caller asked to stop waiting, not a full queue
+            return CompletableFuture.failedFuture(e);
+        }
+        Order order = new Order();
+        try {
+            workers.execute(order);
+        } catch (RejectedExecutionException e) {  // store was closed
+            capacity.release();
+            rejected.increment();
+            order.future.completeExceptionally(e);
+        }
+        return order.future;
+    }
+
+    private boolean reserve() throws InterruptedException {
+        if (whenFull == WhenFull.REJECT) {
+            return capacity.tryAcquire();
+        }
+        capacity.acquire();
+        return true;
+    }
+
+    public int queueDepth() {
+        return workers.getQueue().size();
+    }
+
+    public long completedCount() {
+        return completed.sum();
+    }
+
+    public long rejectedCount() {
+        return rejected.sum();
+    }
+
+    public long failedCount() {
+        return failed.sum();
+    }
+
+    // Completed orders per second since the store was created
+    public double throughput() {
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        return seconds == 0 ? 0 : completed.sum() / seconds;
+    }
+
+    // Submit-to-ready latency in nanoseconds, e.g. latencyPercentile(0.99)
+    public long latencyPercentile(double p) {
+        return latency.percentile(p);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("AsyncPizzaStore[queue=%d, completed=%d, rejected=%d, failed=%d, %.0f/s, "
+                        + "p50=%.2fms, p99=%.2fms, p999=%.2fms]",
+                queueDepth(), completedCount(), rejectedCount(), failedCount(), throughput(),
+                latencyPercentile(0.50) / 1e6, latencyPercentile(0.99) / 1e6, latencyPercentile(0.999) / 1e6);
+    }
+
+    // Stop taking orders and wait for the queued ones to finish; after a minute (or if
+    // interrupted) stop the workers and fail every order still in the queue
+    public void close() {
+        workers.shutdown();
+        boolean interrupted = false;
+        try {
+            if (workers.awaitTermination(1, TimeUnit.MINUTES)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            interrupted = true;
+        }
+        for (Runnable never : workers.shutdownNow()) {
+            ((Order) never).cancel();
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
+
+/**
+ * 📊 LatencyHistogram
+ *
+ * Lock-free, fixed-size latency histogram: each power of two is split into
+ * 8 linear sub-buckets, so percentiles are accurate to about 12%.
+ */
+class LatencyHistogram {
+    private static final int SUB_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(64 * SUB_BUCKETS);
+
+    public void record(long nanos) {
+        counts.incrementAndGet(bucket(Math.max(nanos, 0)));
+    }
+
+    public long count() {
+        long total = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            total += counts.get(i);
+        }
+        return total;
+    }
+
+    public long percentile(double p) {
+        long total = count();
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(p * total);
+        long seen = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return upperBound(i);
+            }
+        }
+        return upperBound(counts.length() - 1);
+    }
+
+    private static int bucket(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;  // small values get exact buckets
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    private static long upperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = bucket / SUB_BUCKETS + SUB_BITS - 1;
+        long sub = bucket % SUB_BUCKETS;
+        return ((SUB_BUCKETS + sub + 1) << (exponent - SUB_BITS)) - 1;
+    }
+}
+
 // Test the Factory Method
 public class FactoryMethod {
     public static void main(String[] args) {
@@ -66,5 +554,111 @@ public class FactoryMethod {
 
         PizzaStore veggieStore = new VeggiePizzaStore();
         veggieStore.orderPizza();
+
+        // Same products, resolved by name
+        PizzaRegistry registry = new PizzaRegistry()
+                .register("pepperoni", PepperoniPizza::new)
+                .register("veggie", VeggiePizza.class);
+        RegistryPizzaStore store = new RegistryPizzaStore(registry);
+        store.orderPizza("pepperoni");
+        store.orderPizza("veggie");
+
+        // Pooling mode: orders reuse pre-built pizzas
+        PizzaStore pooledStore = new PepperoniPizzaStore().enablePooling(4);
+        pooledStore.orderPizza();
+        pooledStore.orderPizza();
+        System.out.println(pooledStore.pool());
+
+        // Async ordering: the caller gets a future and carries on
+        try (AsyncPizzaStore asyncStore = new AsyncPizzaStore(new VeggiePizzaStore(), 2, 16, AsyncPizzaStore.WhenFull.BLOCK)) {
+            asyncStore.orderPizza().join();
+            System.out.println(asyncStore);
+        }
+    }
+}
+
+/**
+ * ⏱️ FactoryBenchmark
+ *
+ * Creating products through PizzaStore subclasses vs PizzaRegistry lookups.
+ *
+ * Run: java FactoryBenchmark [creations]
+ */
+class FactoryBenchmark {
+    static volatile int sink;
+
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 50_000_000;
+        PizzaStore[] stores = {new PepperoniPizzaStore(), new VeggiePizzaStore()};
+        PizzaRegistry lambdas = new PizzaRegistry()
+                .register("pepperoni", PepperoniPizza::new)
+                .register("veggie", VeggiePizza::new);
+        PizzaRegistry generated = new PizzaRegistry()
+                .register("pepperoni", PepperoniPizza.class)
+                .register("veggie", VeggiePizza.class);
+        String[] names = {"pepperoni", "veggie"};
+
+        for (int round = 0; round < 3; round++) {  // first rounds warm up the JIT
+            long start = System.nanoTime();
+            int acc = 0;
+            for (int i = 0; i < n; i++) {
+                acc += stores[i & 1].createPizza() instanceof VeggiePizza ? 1 : 0;
+            }
+            long subclassNs = System.nanoTime() - start;
+
+            long lambdaNs = time(lambdas, names, n);
+            long generatedNs = time(generated, names, n);
+            sink += acc;
+            System.out.printf("subclass %.2f ns   registry(lambda) %.2f ns   registry(generated) %.2f ns   per pizza%n",
+                    (double) subclassNs / n, (double) lambdaNs / n, (double) generatedNs / n);
+        }
+    }
+
+    private static long time(PizzaRegistry registry, String[] names, int n) {
+        long start = System.nanoTime();
+        int acc = 0;
+        for (int i = 0; i < n; i++) {
+            acc += registry.create(names[i & 1]) instanceof VeggiePizza ? 1 : 0;
+        }
+        sink += acc;
+        return System.nanoTime() - start;
+    }
+}
+
+/**
+ * ⏱️ PizzaLoadTest
+ *
+ * Fires thousands of concurrent orders at an AsyncPizzaStore whose pizzas take
+ * about a millisecond to prepare, and prints queue, throughput and latency stats.
+ *
+ * Run: java PizzaLoadTest [orders] [workers] [queueCapacity] [REJECT|BLOCK]
+ */
+class PizzaLoadTest {
+    public static void main(String[] args) {
+        int orders = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+        int queue = args.length > 2 ? Integer.parseInt(args[2]) : 1_000;
+        AsyncPizzaStore.WhenFull whenFull = args.length > 3
+                ? AsyncPizzaStore.WhenFull.valueOf(args[3]) : AsyncPizzaStore.WhenFull.BLOCK;
+
+        Supplier<Pizza> slowPizza = () -> () -> {
+            try {
+                Thread.sleep(1);  // stands in for a slow oven
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+
+        try (AsyncPizzaStore store = new AsyncPizzaStore(slowPizza, threads, queue, whenFull)) {
+            CompletableFuture<?>[] futures = new CompletableFuture<?>[orders];
+            for (int i = 0; i < orders; i++) {
+                futures[i] = store.orderPizza().exceptionally(e -> null);
+                if (i % 5_000 == 0) {
+                    System.out.println(store);
+                }
+            }
+            CompletableFuture.allOf(futures).join();
+            System.out.println(store);
+        }
     }
 }
@@ -12,15 +12,22 @@
  *
  * ✅ Key Features:
  * - Private constructor (so no one can create a new instance directly)
- * - Static instance stored inside the class
+ * - Static instance stored inside the class (lazily, via a holder class)
  * - Public method to access that single instance
  */
 
 
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
  public class Singleton {
-    
-    // Step 1: Private static variable to hold the one instance
-    private static Singleton instance;
+
+    // Step 1: Holder class keeps the one instance (loaded only on first use)
+    // The JVM runs the holder's static initializer exactly once, under the class-init lock,
+    // and safely publishes the result — so every later read is a plain, lock-free field load.
+    private static class Holder {
+        static final Singleton INSTANCE = new Singleton();
+    }
 
     // Step 2: Private constructor (prevents direct instantiation)
     private Singleton() {
@@ -29,10 +36,7 @@
 
     // Step 3: Public method to provide access to the instance
     public static Singleton getInstance() {
-        if (instance == null) {
-            instance = new Singleton();  // Lazy initialization
-        }
-        return instance;
+        return Holder.INSTANCE;  // Lazy, thread-safe initialization without synchronized
     }
 
     // Demo method
@@ -47,5 +51,104 @@
 
         System.out.println("Are both instances the same? " + (s1 == s2));  // should be true
         s1.sayHello();
+
+        // One lazy instance per type, shared by every thread
+        SingletonRegistry registry = new SingletonRegistry();
+        StringBuilder a = registry.get(StringBuilder.class, () -> new StringBuilder("shared"));
+        StringBuilder b = registry.get(StringBuilder.class, StringBuilder::new);
+        System.out.println("Registry returns the same instance? " + (a == b));  // should be true
+    }
+}
+
+/**
+ * 🗂️ SingletonRegistry
+ *
+ * Keeps one lazily created instance per type.
+ * - Lookups of an existing instance are a lock-free map read
+ * - The factory for a type runs at most once, even when many threads race for it
+ *
+ * Note: a factory must not call back into the same registry for the same type.
+ */
+class SingletonRegistry {
+    private final ConcurrentHashMap<Class<?>, Object> instances = new ConcurrentHashMap<>();
+
+    public <T> T get(Class<T> type, Supplier<? extends T> factory) {
+        Object instance = instances.get(type);  // fast path: already created
+        if (instance == null) {
+            instance = instances.computeIfAbsent(type, k -> factory.get());  // slow path: create once
+        }
+        return type.cast(instance);
+    }
+
+    public boolean contains(Class<?> type) {
+        return instances.containsKey(type);
+    }
+
+    public int size() {
+        return instances.size();
+    }
+}
+
+/**
+ * ⏱️ SingletonBenchmark
+ *
+ * Hammers getInstance() from several threads once the instance exists,
+ * and compares it with a plain synchronized accessor.
+ *
+ * Run: java SingletonBenchmark [threads] [callsPerThread]
+ */
+class SingletonBenchmark {
+    // The naive thread-safe version, for comparison
+    private static class SynchronizedSingleton {
+        private static SynchronizedSingleton instance;
+
+        static synchronized SynchronizedSingleton getInstance() {
+            if (instance == null) {
+                instance = new SynchronizedSingleton();
+            }
+            return instance;
+        }
+    }
+
+    static volatile long sink;
+
+    public static void main(String[] args) throws InterruptedException {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int calls = args.length > 1 ? Integer.parseInt(args[1]) : 20_000_000;
+
+        Singleton.getInstance();  // create it up front — we measure the steady state
+
+        SingletonRegistry registry = new SingletonRegistry();
+        registry.get(Object.class, Object::new);
+
+        for (int round = 0; round < 3; round++) {  // first rounds warm up the JIT
+            report("holder      ", threads, calls, () -> Singleton.getInstance());
+            report("registry    ", threads, calls, () -> registry.get(Object.class, Object::new));
+            report("synchronized", threads, calls, () -> SynchronizedSingleton.getInstance());
+            System.out.println();
+        }
+    }
+
+    private static void report(String label, int threads, int calls, Supplier<Object> accessor)
+            throws InterruptedException {
+        Thread[] workers = new Thread[threads];
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(() -> {
+                long found = 0;
+                for (int i = 0; i < calls; i++) {
+                    if (accessor.get() != null) {
+                        found++;
+                    }
+                }
+                sink += found;
+            });
+            workers[t].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        long elapsed = System.nanoTime() - start;
+        System.out.printf("%s %d threads: %.2f ns/call%n", label, threads, (double) elapsed / calls);
     }
-}
\ No newline at end of file
+}
@@ -14,6 +14,34 @@
  * - Allows reuse of existing functionality without modifying original code
  */
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
 // 🎯 Target interface (what the client expects)
 interface MediaPlayer {
     void play(String fileName);
@@ -35,10 +63,644 @@ class AudioAdapter implements MediaPlayer {
     }
 }
 
+// 🧱 Adaptee used in production: actually streams the file to an output device
+class LegacyStreamingPlayer {
+    enum Mode { TRANSFER, BUFFERED }
+
+    private static final int BUFFER_BYTES = 256 * 1024;
+
+    // One direct buffer per thread, reused for every file (BUFFERED mode)
+    private static final ThreadLocal<ByteBuffer> BUFFER =
+            ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(BUFFER_BYTES));
+
+    private final WritableByteChannel device;
+    private final Mode mode;
+
+    public LegacyStreamingPlayer(WritableByteChannel device, Mode mode) {
+        this.device = device;
+        this.mode = mode;
+    }
+
+    // Returns the number of bytes streamed — the whole file, or an IOException if the device stalls
+    public long streamFile(Path fullPath) throws IOException {
+        try (FileChannel in = FileChannel.open(fullPath, StandardOpenOption.READ)) {
+            long size = in.size();
+            long streamed = mode == Mode.TRANSFER ? transfer(in, size) : copy(in);
+            if (streamed < size) {
+                throw new IOException("Short write: device took " + streamed + " of " + size + " bytes of " + fullPath);
+            }
+            return streamed;
+        }
+    }
+
+    // Zero-copy: the OS moves the bytes (sendfile/splice) without passing through the Java heap
+    private long transfer(FileChannel in, long size) throws IOException {
+        long position = 0;
+        while (position < size) {
+            long sent = in.transferTo(position, size - position, device);
+            if (sent <= 0) {
+                break;  // device took nothing — streamFile reports the short write
+            }
+            position += sent;
+        }
+        return position;
+    }
+
+    // Off-heap copy through a reusable direct buffer — no byte[] per read
+    private long copy(FileChannel in) throws IOException {
+        ByteBuffer buffer = BUFFER.get();
+        long total = 0;
+        buffer.clear();
+        while (in.read(buffer) >= 0 || buffer.position() > 0) {
+            buffer.flip();
+            int written = device.write(buffer);
+            if (written == 0 && buffer.hasRemaining()) {
+                break;  // device took nothing — stop instead of spinning; streamFile reports it
+            }
+            total += written;
+            buffer.compact();
+        }
+        return total;
+    }
+}
+
+// 🧩 Streaming adapter (MediaPlayer in front of LegacyStreamingPlayer)
+class StreamingAudioAdapter implements MediaPlayer {
+    static final int MAX_CACHED_PATHS = 4096;
+
+    private final LegacyStreamingPlayer legacyPlayer;
+    private final Path musicDir;
+    private final ConcurrentHashMap<String, Path> resolved = new ConcurrentHashMap<>();
+    private final LongAdder bytesPlayed = new LongAdder();
+
+    public StreamingAudioAdapter(LegacyStreamingPlayer legacyPlayer, Path musicDir) {
+        this.legacyPlayer = legacyPlayer;
+        this.musicDir = musicDir.toAbsolutePath().normalize();
+    }
+
+    public void play(String fileName) {
+        Path path = resolved.get(fileName);  // resolve once per file name
+        if (path == null) {
+            path = resolve(fileName);
+            if (resolved.size() < MAX_CACHED_PATHS) {  // bounded: arbitrary names can't grow it forever
+                resolved.putIfAbsent(fileName, path);
+            }
+        }
+        try {
+            bytesPlayed.add(legacyPlayer.streamFile(path));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Can't play " + path, e);
+        }
+    }
+
+    // Like "music/" + fileName in the old adapter: never a file outside musicDir
+    private Path resolve(String fileName) {
+        Path path = musicDir.resolve(fileName).normalize();
+        if (!path.startsWith(musicDir) || path.equals(musicDir)) {
+            throw new IllegalArgumentException("Not a file in " + musicDir + ": " + fileName);
+        }
+        return path;
+    }
+
+    public long bytesPlayed() {
+        return bytesPlayed.sum();
+    }
+}
+
+/**
+ * 🏭 AdapterFactory
+ *
+ * Builds adapters at runtime instead of hand-writing one class per legacy API:
+ *
+ *   MediaPlayer player = AdapterFactory.of(MediaPlayer.class, LegacyAudioPlayer.class)
+ *           .map("play", "playFile")
+ *           .transform("play", 0, (String f) -> "music/" + f)
+ *           .adapt(new LegacyAudioPlayer());
+ *
+ * Each mapping becomes one MethodHandle (adaptee method + argument filters), built once.
+ * - The factory defines one hidden class implementing the interface; its handles arrive as
+ *   class data and sit in static final fields, so they are true constants and the JIT can
+ *   inline straight through to the adaptee. adapt() then only allocates an instance.
+ * - If the interface can't be implemented from here (e.g. not accessible), it falls back to
+ *   a Proxy that dispatches through the same handles (still no Method.invoke per call)
+ * - Overloaded adaptee methods are picked by parameter types, not just name and arity
+ */
+class AdapterFactory<T, A> {
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private final Class<T> target;
+    private final Class<A> adapteeType;
+    private final Map<String, String> names = new HashMap<>();
+    private final Map<String, Map<Integer, Function<?, ?>>> transforms = new HashMap<>();
+    private MethodHandle constructor;  // (Object adaptee)Object of the generated class; reset by map/transform
+
+    private AdapterFactory(Class<T> target, Class<A> adapteeType) {
+        if (!target.isInterface()) {
+            throw new IllegalArgumentException(target.getName() + " is not an interface");
+        }
+        this.target = target;
+        this.adapteeType = adapteeType;
+    }
+
+    public static <T, A> AdapterFactory<T, A> of(Class<T> target, Class<A> adapteeType) {
+        return new AdapterFactory<>(target, adapteeType);
+    }
+
+    // targetMethod on the interface calls adapteeMethod on the legacy object (unmapped names match as-is)
+    public synchronized AdapterFactory<T, A> map(String targetMethod, String adapteeMethod) {
+        names.put(targetMethod, adapteeMethod);
+        constructor = null;
+        return this;
+    }
+
+    // Rewrite one argument before it reaches the adaptee, e.g. add a path prefix
+    public synchronized <X, Y> AdapterFactory<T, A> transform(String targetMethod, int argIndex, Function<X, Y> fn) {
+        transforms.computeIfAbsent(targetMethod, k -> new HashMap<>()).put(argIndex, fn);
+        constructor = null;
+        return this;
+    }
+
+    public synchronized T adapt(A adaptee) {
+        if (constructor == null) {
+            List<Method> methods = abstractMethods();
+            List<MethodHandle> handles = new ArrayList<>();
+            for (Method m : methods) {
+                handles.add(handleFor(m));
+            }
+            constructor = generate(methods, handles);
+            if (constructor == null) {
+                return proxy(methods, handles, adaptee);
+            }
+        }
+        try {
+            return target.cast((Object) constructor.invokeExact((Object) adaptee));
+        } catch (Throwable e) {
+            throw new IllegalStateException("Failed to create adapter for " + target.getName(), e);
+        }
+    }
+
+    private List<Method> abstractMethods() {
+        List<Method> methods = new ArrayList<>();
+        for (Method m : target.getMethods()) {
+            if (Modifier.isAbstract(m.getModifiers())) {
+                methods.add(m);
+            }
+        }
+        return methods;
+    }
+
+    // (Object adaptee, interface args) -> adaptee.method(transformed args), typed like the interface method
+    private MethodHandle handleFor(Method m) {
+        String adapteeName = names.getOrDefault(m.getName(), m.getName());
+        Map<Integer, Function<?, ?>> argTransforms = transforms.getOrDefault(m.getName(), Map.of());
+        Method legacy = findAdapteeMethod(adapteeName, m, argTransforms.keySet());
+        try {
+            MethodHandle mh = LOOKUP.unreflect(legacy);
+            for (Map.Entry<Integer, Function<?, ?>> t : argTransforms.entrySet()) {
+                int i = t.getKey();
+                MethodHandle filter = FunctionHandles.APPLY.bindTo(t.getValue())
+                        .asType(MethodType.methodType(legacy.getParameterTypes()[i], m.getParameterTypes()[i]));
+                mh = MethodHandles.filterArguments(mh, i + 1, filter);  // + 1: the receiver comes first
+            }
+            return mh.asType(MethodType.methodType(m.getReturnType(), m.getParameterTypes()).insertParameterTypes(0, Object.class));
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException("Can't access " + legacy, e);
+        }
+    }
+
+    // Exact parameter types win; otherwise the single compatible overload (transformed args match anything)
+    private Method findAdapteeMethod(String name, Method m, Set<Integer> transformed) {
+        Class<?>[] wanted = m.getParameterTypes();
+        Method compatible = null;
+        int compatibleCount = 0;
+        for (Method candidate : adapteeType.getMethods()) {
+            if (!candidate.getName().equals(name) || candidate.getParameterCount() != wanted.length) {
+                continue;
+            }
+            Class<?>[] actual = candidate.getParameterTypes();
+            boolean exact = true;
+            boolean fits = true;
+            for (int i = 0; i < wanted.length; i++) {
+                if (transformed.contains(i)) {
+                    continue;
+                }
+                exact &= actual[i] == wanted[i];
+                fits &= actual[i] == wanted[i] || (!actual[i].isPrimitive() && actual[i].isAssignableFrom(wanted[i]));
+            }
+            if (exact) {
+                return candidate;
+            }
+            if (fits) {
+                compatible = candidate;
+                compatibleCount++;
+            }
+        }
+        if (compatibleCount == 1) {
+            return compatible;
+        }
+        throw new IllegalArgumentException((compatibleCount == 0 ? "No public " : "Ambiguous overloads of ")
+                + adapteeType.getName() + "." + name + " for " + m);
+    }
+
+    // One hidden class per factory configuration; returns null if it can't be defined here
+    private MethodHandle generate(List<Method> methods, List<MethodHandle> handles) {
+        byte[] bytes = AdapterClassWriter.write(AdapterFactory.class.getName() + "$Generated", target, methods);
+        try {
+            MethodHandles.Lookup hidden = LOOKUP.defineHiddenClassWithClassData(bytes, List.copyOf(handles), true);
+            return hidden.findConstructor(hidden.lookupClass(), MethodType.methodType(void.class, Object.class))
+                    .asType(MethodType.methodType(Object.class, Object.class));
+        } catch (IllegalAccessException | NoSuchMethodException | LinkageError e) {
+            return null;  // e.g. an interface this package can't see — use the proxy instead
+        }
+    }
+
+    private T proxy(List<Method> methods, List<MethodHandle> handles, A adaptee) {
+        Map<Method, MethodHandle> spreaders = new HashMap<>();
+        for (int i = 0; i < methods.size(); i++) {
+            int arity = methods.get(i).getParameterCount();
+            spreaders.put(methods.get(i), handles.get(i).bindTo(adaptee)
+                    .asType(MethodType.genericMethodType(arity)).asSpreader(Object[].class, arity));
+        }
+        Object adapter = Proxy.newProxyInstance(target.getClassLoader(), new Class<?>[] {target}, (proxy, method, args) -> {
+            MethodHandle mh = spreaders.get(method);
+            if (mh != null) {
+                return mh.invoke(args == null ? new Object[0] : args);
+            }
+            switch (method.getName()) {
+                case "hashCode": return System.identityHashCode(proxy);
+                case "equals": return proxy == args[0];
+                case "toString": return target.getSimpleName() + "Adapter@" + Integer.toHexString(System.identityHashCode(proxy));
+                default: return InvocationHandler.invokeDefault(proxy, method, args);
+            }
+        });
+        return target.cast(adapter);
+    }
+}
+
+/**
+ * 🧬 AdapterClassWriter
+ *
+ * Writes the class file for AdapterFactory's hidden adapter class, by hand (no bytecode library):
+ *
+ *   final class X implements Target {
+ *       private static final MethodHandle H0 = classDataAt(lookup(), "_", MethodHandle.class, 0); ...
+ *       private final Object adaptee;
+ *       X(Object adaptee) { this.adaptee = adaptee; }
+ *       public R m0(P...) { return (R) H0.invokeExact(adaptee, P...); }  ...
+ *   }
+ *
+ * No method has branches, so no StackMapTable is needed.
+ */
+final class AdapterClassWriter {
+    private static final String MH = "java/lang/invoke/MethodHandle";
+    private static final String MHS = "java/lang/invoke/MethodHandles";
+
+    private final List<Object[]> pool = new ArrayList<>();  // constant pool entries, index = position + 1
+    private final Map<String, Integer> poolIndex = new HashMap<>();
+
+    private AdapterClassWriter() {
+    }
+
+    static byte[] write(String className, Class<?> target, List<Method> methods) {
+        return new AdapterClassWriter().classFile(className.replace('.', '/'), target, methods);
+    }
+
+    private byte[] classFile(String self, Class<?> target, List<Method> methods) {
+        int thisClass = classRef(self);
+        int superClass = classRef("java/lang/Object");
+        int iface = classRef(target.getName().replace('.', '/'));
+        int adapteeField = fieldRef(self, "adaptee", "Ljava/lang/Object;");
+
+        ByteBuffer fields = ByteBuffer.allocate(8 * (methods.size() + 1));
+        fields.putShort((short) 0x0012).putShort((short) utf8("adaptee")).putShort((short) utf8("Ljava/lang/Object;")).putShort((short) 0);
+        for (int i = 0; i < methods.size(); i++) {
+            fields.putShort((short) 0x001A).putShort((short) utf8("H" + i)).putShort((short) utf8("L" + MH + ";")).putShort((short) 0);
+        }
+
+        List<byte[]> methodInfos = new ArrayList<>();
+        // Constructor
+        ByteBuffer init = ByteBuffer.allocate(16);
+        init.put((byte) 0x2a).put((byte) 0xb7).putShort((short) methodRef("java/lang/Object", "<init>", "()V"))
+                .put((byte) 0x2a).put((byte) 0x2b).put((byte) 0xb5).putShort((short) adapteeField).put((byte) 0xb1);
+        methodInfos.add(method(0x0000, "<init>", "(Ljava/lang/Object;)V", 2, 2, init));
+        // Static initializer: load each handle from class data
+        ByteBuffer clinit = ByteBuffer.allocate(21 * methods.size() + 1);
+        for (int i = 0; i < methods.size(); i++) {
+            clinit.put((byte) 0xb8).putShort((short) methodRef(MHS, "lookup", "()L" + MHS + "$Lookup;"));
+            clinit.put((byte) 0x13).putShort((short) string("_"));
+            clinit.put((byte) 0x13).putShort((short) classRef(MH));
+            clinit.put((byte) 0x11).putShort((short) i);
+            clinit.put((byte) 0xb8).putShort((short) methodRef(MHS, "classDataAt",
+                    "(L" + MHS + "$Lookup;Ljava/lang/String;Ljava/lang/Class;I)Ljava/lang/Object;"));
+            clinit.put((byte) 0xc0).putShort((short) classRef(MH));
+            clinit.put((byte) 0xb3).putShort((short) fieldRef(self, "H" + i, "L" + MH + ";"));
+        }
+        clinit.put((byte) 0xb1);
+        methodInfos.add(method(0x0008, "<clinit>", "()V", 4, 0, clinit));
+        // Interface methods
+        for (int i = 0; i < methods.size(); i++) {
+            Method m = methods.get(i);
+            String descriptor = MethodType.methodType(m.getReturnType(), m.getParameterTypes()).toMethodDescriptorString();
+            String callDescriptor = "(Ljava/lang/Object;" + descriptor.substring(1);
+            ByteBuffer code = ByteBuffer.allocate(16 + 4 * m.getParameterCount());
+            code.put((byte) 0xb2).putShort((short) fieldRef(self, "H" + i, "L" + MH + ";"));
+            code.put((byte) 0x2a).put((byte) 0xb4).putShort((short) adapteeField);
+            int slot = 1;
+            for (Class<?> type : m.getParameterTypes()) {
+                code.put((byte) loadOpcode(type)).put((byte) slot);
+                slot += type == long.class || type == double.class ? 2 : 1;
+            }
+            code.put((byte) 0xb6).putShort((short) methodRef(MH, "invokeExact", callDescriptor));
+            code.put((byte) returnOpcode(m.getReturnType()));
+            methodInfos.add(method(0x0001, m.getName(), descriptor, slot + 1, slot, code));
+        }
+
+        ByteBuffer out = ByteBuffer.allocate(1 << 16);
+        out.putInt(0xCAFEBABE).putShort((short) 0).putShort((short) 61);  // Java 17 class file
+        out.putShort((short) (pool.size() + 1));
+        for (Object[] entry : pool) {
+            out.put((byte) (int) (Integer) entry[0]);
+            if (entry[1] instanceof byte[]) {
+                byte[] utf = (byte[]) entry[1];
+                out.putShort((short) utf.length).put(utf);
+            } else {
+                for (int k = 1; k < entry.length; k++) {
+                    out.putShort((short) (int) (Integer) entry[k]);
+                }
+            }
+        }
+        out.putShort((short) 0x0030).putShort((short) thisClass).putShort((short) superClass);  // ACC_FINAL | ACC_SUPER
+        out.putShort((short) 1).putShort((short) iface);
+        fields.flip();
+        out.putShort((short) (methods.size() + 1)).put(fields);
+        out.putShort((short) methodInfos.size());
+        for (byte[] info : methodInfos) {
+            out.put(info);
+        }
+        out.putShort((short) 0);  // class attributes
+        byte[] bytes = new byte[out.position()];
+        out.flip();
+        out.get(bytes);
+        return bytes;
+    }
+
+    private byte[] method(int access, String name, String descriptor, int maxStack, int maxLocals, ByteBuffer code) {
+        code.flip();
+        int codeLength = code.remaining();
+        ByteBuffer info = ByteBuffer.allocate(8 + 18 + codeLength);
+        info.putShort((short) access).putShort((short) utf8(name)).putShort((short) utf8(descriptor)).putShort((short) 1);
+        info.putShort((short) utf8("Code")).putInt(12 + codeLength);
+        info.putShort((short) maxStack).putShort((short) maxLocals).putInt(codeLength).put(code);
+        info.putShort((short) 0).putShort((short) 0);  // no exception table, no attributes
+        return info.array();
+    }
+
+    private static int loadOpcode(Class<?> type) {
+        if (type == long.class) {
+            return 0x16;
+        } else if (type == float.class) {
+            return 0x17;
+        } else if (type == double.class) {
+            return 0x18;
+        } else if (type.isPrimitive()) {
+            return 0x15;  // int, short, char, byte, boolean
+        }
+        return 0x19;
+    }
+
+    private static int returnOpcode(Class<?> type) {
+        if (type == void.class) {
+            return 0xb1;
+        } else if (type == long.class) {
+            return 0xad;
+        } else if (type == float.class) {
+            return 0xae;
+        } else if (type == double.class) {
+            return 0xaf;
+        } else if (type.isPrimitive()) {
+            return 0xac;
+        }
+        return 0xb0;
+    }
+
+    private int utf8(String value) {
+        return entry("U" + value, 1, value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private int classRef(String internalName) {
+        return entry("C" + internalName, 7, utf8(internalName));
+    }
+
+    private int string(String value) {
+        return entry("S" + value, 8, utf8(value));
+    }
+
+    private int nameAndType(String name, String descriptor) {
+        return entry("N" + name + ":" + descriptor, 12, utf8(name), utf8(descriptor));
+    }
+
+    private int fieldRef(String owner, String name, String descriptor) {
+        return entry("F" + owner + "." + name + ":" + descriptor, 9, classRef(owner), nameAndType(name, descriptor));
+    }
+
+    private int methodRef(String owner, String name, String descriptor) {
+        return entry("M" + owner + "." + name + descriptor, 10, classRef(owner), nameAndType(name, descriptor));
+    }
+
+    private int entry(String key, int tag, Object... values) {
+        Integer existing = poolIndex.get(key);
+        if (existing != null) {
+            return existing;
+        }
+        Object[] entry = new Object[values.length + 1];
+        entry[0] = tag;
+        System.arraycopy(values, 0, entry, 1, values.length);
+        pool.add(entry);
+        poolIndex.put(key, pool.size());
+        return pool.size();
+    }
+}
+
+// Shared handle for running argument transforms
+final class FunctionHandles {
+    static final MethodHandle APPLY;
+
+    static {
+        try {
+            APPLY = MethodHandles.lookup().findVirtual(Function.class, "apply",
+                    MethodType.methodType(Object.class, Object.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private FunctionHandles() {
+    }
+}
+
 // 👤 Client code
 public class Adapter {
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
         MediaPlayer player = new AudioAdapter();
         player.play("song.mp3");  // works even though the formats were incompatible!
+
+        // Same client code, real streaming behind it
+        Path musicDir = Files.createTempDirectory("music");
+        Path song = Files.write(musicDir.resolve("song.mp3"), new byte[64 * 1024]);
+        CountingChannel speaker = new CountingChannel();
+        MediaPlayer streamer = new StreamingAudioAdapter(
+                new LegacyStreamingPlayer(speaker, LegacyStreamingPlayer.Mode.TRANSFER), musicDir);
+        streamer.play("song.mp3");
+        System.out.println("Streamed " + speaker.bytes() + " bytes of " + song.getFileName());
+        Files.delete(song);
+        Files.delete(musicDir);
+
+        // Same adapter, generated instead of hand-written
+        MediaPlayer generated = AdapterFactory.of(MediaPlayer.class, LegacyAudioPlayer.class)
+                .map("play", "playFile")
+                .transform("play", 0, (String fileName) -> "music/" + fileName)
+                .adapt(new LegacyAudioPlayer());
+        generated.play("generated.mp3");
+    }
+}
+
+// 🔈 Output device stand-in: accepts and counts bytes
+class CountingChannel implements WritableByteChannel {
+    private long bytes;
+    private boolean open = true;
+
+    public int write(ByteBuffer src) {
+        int n = src.remaining();
+        src.position(src.limit());
+        bytes += n;
+        return n;
+    }
+
+    public long bytes() {
+        return bytes;
+    }
+
+    public boolean isOpen() {
+        return open;
+    }
+
+    public void close() {
+        open = false;
+    }
+}
+
+/**
+ * ⏱️ StreamingBenchmark
+ *
+ * Streams a large local file to /dev/null through the adapter:
+ * transferTo vs reusable direct buffer vs a plain InputStream heap copy.
+ *
+ * Run: java StreamingBenchmark [fileSizeMB] [rounds]
+ */
+class StreamingBenchmark {
+    public static void main(String[] args) throws IOException {
+        int sizeMb = args.length > 0 ? Integer.parseInt(args[0]) : 512;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        Path dir = Files.createTempDirectory("music");
+        Path file = dir.resolve("big.wav");
+        byte[] chunk = new byte[1 << 20];
+        try (OutputStream out = Files.newOutputStream(file)) {
+            for (int i = 0; i < sizeMb; i++) {
+                out.write(chunk);
+            }
+        }
+
+        try (FileChannel devNull = FileChannel.open(Paths.get("/dev/null"), StandardOpenOption.WRITE)) {
+            MediaPlayer transfer = new StreamingAudioAdapter(
+                    new LegacyStreamingPlayer(devNull, LegacyStreamingPlayer.Mode.TRANSFER), dir);
+            MediaPlayer buffered = new StreamingAudioAdapter(
+                    new LegacyStreamingPlayer(devNull, LegacyStreamingPlayer.Mode.BUFFERED), dir);
+            for (int round = 0; round < rounds; round++) {
+                System.out.printf("transferTo %,8.0f MB/s   direct buffer %,8.0f MB/s   heap stream %,8.0f MB/s%n",
+                        mbPerSecond(sizeMb, () -> transfer.play("big.wav")),
+                        mbPerSecond(sizeMb, () -> buffered.play("big.wav")),
+                        mbPerSecond(sizeMb, () -> heapCopy(file)));
+            }
+        } finally {
+            Files.delete(file);
+            Files.delete(dir);
+        }
+    }
+
+    private static double mbPerSecond(int sizeMb, Runnable play) {
+        long start = System.nanoTime();
+        play.run();
+        return sizeMb / ((System.nanoTime() - start) / 1e9);
+    }
+
+    // The old way: InputStream into a byte[] on the heap, then out again
+    private static void heapCopy(Path file) {
+        try (InputStream in = Files.newInputStream(file);
+             OutputStream out = Files.newOutputStream(Paths.get("/dev/null"))) {
+            in.transferTo(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
+
+/**
+ * ⏱️ AdapterBenchmark
+ *
+ * Calls through a hand-written adapter, an AdapterFactory adapter,
+ * and a java.lang.reflect.Proxy adapter that uses Method.invoke.
+ *
+ * Run: java AdapterBenchmark [calls]
+ */
+class AdapterBenchmark {
+    // Silent adaptee, so we measure the call path and not System.out
+    static class QuietLegacyPlayer {
+        long chars;
+
+        public void playFile(String fullPath) {
+            chars += fullPath.length();
+        }
+    }
+
+    static final class HandWrittenAdapter implements MediaPlayer {
+        private final QuietLegacyPlayer legacy;
+
+        HandWrittenAdapter(QuietLegacyPlayer legacy) {
+            this.legacy = legacy;
+        }
+
+        public void play(String fileName) {
+            legacy.playFile("music/" + fileName);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int calls = args.length > 0 ? Integer.parseInt(args[0]) : 20_000_000;
+        QuietLegacyPlayer legacy = new QuietLegacyPlayer();
+
+        MediaPlayer handWritten = new HandWrittenAdapter(legacy);
+        MediaPlayer generated = AdapterFactory.of(MediaPlayer.class, QuietLegacyPlayer.class)
+                .map("play", "playFile")
+                .transform("play", 0, (String fileName) -> "music/" + fileName)
+                .adapt(legacy);
+        Method playFile = QuietLegacyPlayer.class.getMethod("playFile", String.class);
+        MediaPlayer reflective = (MediaPlayer) Proxy.newProxyInstance(MediaPlayer.class.getClassLoader(),
+                new Class<?>[] {MediaPlayer.class}, (proxy, method, a) -> playFile.invoke(legacy, "music/" + a[0]));
+
+        String[] songs = {"a.mp3", "b.mp3", "c.mp3", "d.mp3"};
+        for (int round = 0; round < 3; round++) {  // first rounds warm up the JIT
+            System.out.printf("hand-written %.2f ns   generated %.2f ns   reflect.Proxy %.2f ns   per call%n",
+                    time(handWritten, songs, calls), time(generated, songs, calls), time(reflective, songs, calls));
+        }
+        System.out.println("(chars played: " + legacy.chars + ")");
+    }
+
+    private static double time(MediaPlayer player, String[] songs, int calls) {
+        long start = System.nanoTime();
+        for (int i = 0; i < calls; i++) {
+            player.play(songs[i & 3]);
+        }
+        return (double) (System.nanoTime() - start) / calls;
     }
 }
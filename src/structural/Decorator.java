@@ -15,10 +15,26 @@
  * - Promotes open/closed principle (open for extension, closed for modification)
  */
 
+import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
 // 🧱 Component interface
 interface Coffee {
     String getDescription();
     double getCost();
+
+    // Price in whole cents — exact to add up, unlike doubles
+    default long getCostCents() {
+        return Math.round(getCost() * 100);
+    }
 }
 
 // 🍵 Concrete Component
@@ -41,11 +57,20 @@ abstract class CoffeeDecorator implements Coffee {
     }
 
     public String getDescription() {
-        return decoratedCoffee.getDescription();
+        return decoratedCoffee.getDescription() + descriptionSuffix();
     }
 
     public double getCost() {
-        return decoratedCoffee.getCost();
+        return decoratedCoffee.getCost() + costDelta();
+    }
+
+    // What this layer adds — lets CoffeeCompiler flatten a chain without calling through it
+    protected String descriptionSuffix() {
+        return "";
+    }
+
+    protected double costDelta() {
+        return 0.0;
     }
 }
 
@@ -55,12 +80,12 @@ class MilkDecorator extends CoffeeDecorator {
         super(c);
     }
 
-    public String getDescription() {
-        return super.getDescription() + ", Milk";
+    protected String descriptionSuffix() {
+        return ", Milk";
     }
 
-    public double getCost() {
-        return super.getCost() + 0.5;
+    protected double costDelta() {
+        return 0.5;
     }
 }
 
@@ -69,12 +94,370 @@ class WhipDecorator extends CoffeeDecorator {
         super(c);
     }
 
+    protected String descriptionSuffix() {
+        return ", Whip";
+    }
+
+    protected double costDelta() {
+        return 0.7;
+    }
+}
+
+/**
+ * 📦 CompiledCoffee
+ *
+ * A finished decorator stack flattened into two precomputed values.
+ * getCost() and getDescription() are O(1) field reads, and return exactly what
+ * the original chain returns.
+ */
+final class CompiledCoffee implements Coffee {
+    private final String description;
+    private final double cost;
+    private final long costCents;
+    private final int depth;
+
+    CompiledCoffee(String description, double cost, int depth) {
+        this.description = description;
+        this.cost = cost;
+        this.costCents = Math.round(cost * 100);
+        this.depth = depth;
+    }
+
     public String getDescription() {
-        return super.getDescription() + ", Whip";
+        return description;
     }
 
     public double getCost() {
-        return super.getCost() + 0.7;
+        return cost;
+    }
+
+    public long getCostCents() {
+        return costCents;
+    }
+
+    // Number of decorator layers that were folded in
+    public int getDepth() {
+        return depth;
+    }
+}
+
+/**
+ * 🛠️ CoffeeCompiler
+ *
+ * Walks a decorator stack once and folds it into a CompiledCoffee:
+ * - the description is built with a single StringBuilder (no per-layer copies)
+ * - the cost is summed innermost-first, the same order the chain adds it,
+ *   so the double result is bit-for-bit identical
+ *
+ * A decorator that overrides getDescription()/getCost() itself (instead of the
+ * suffix/delta hooks) can't be folded safely, so it is treated as an opaque base
+ * and asked for its values once.
+ */
+class CoffeeCompiler {
+    // Per decorator class: does it rely only on the suffix/delta hooks?
+    private static final ClassValue<Boolean> FOLDABLE = new ClassValue<>() {
+        protected Boolean computeValue(Class<?> type) {
+            try {
+                return type.getMethod("getDescription").getDeclaringClass() == CoffeeDecorator.class
+                        && type.getMethod("getCost").getDeclaringClass() == CoffeeDecorator.class;
+            } catch (NoSuchMethodException e) {
+                return false;
+            }
+        }
+    };
+
+    public static CompiledCoffee compile(Coffee coffee) {
+        if (coffee instanceof CompiledCoffee) {
+            return (CompiledCoffee) coffee;
+        }
+
+        // Collect the foldable layers, outermost first, down to the base
+        List<CoffeeDecorator> layers = new ArrayList<>();
+        Coffee current = coffee;
+        while (current instanceof CoffeeDecorator && FOLDABLE.get(current.getClass())) {
+            CoffeeDecorator layer = (CoffeeDecorator) current;
+            layers.add(layer);
+            current = layer.decoratedCoffee;
+        }
+
+        String baseDescription;
+        double cost;
+        int depth = layers.size();
+        if (current instanceof CompiledCoffee) {
+            CompiledCoffee base = (CompiledCoffee) current;
+            baseDescription = base.getDescription();
+            cost = base.getCost();
+            depth += base.getDepth();
+        } else {
+            baseDescription = current.getDescription();
+            cost = current.getCost();
+        }
+
+        StringBuilder description = new StringBuilder(baseDescription.length() + layers.size() * 8);
+        description.append(baseDescription);
+        for (int i = layers.size() - 1; i >= 0; i--) {  // innermost layer first
+            CoffeeDecorator layer = layers.get(i);
+            description.append(layer.descriptionSuffix());
+            cost += layer.costDelta();
+        }
+        return new CompiledCoffee(description.toString(), cost, depth);
+    }
+}
+
+/**
+ * 🧬 CoffeeInterner
+ *
+ * Hash-consing for decorator stacks: every distinct combination
+ * (base, then each decorator in order) exists exactly once and is shared.
+ *
+ * The table is a prefix tree — each canonical coffee keeps a concurrent map
+ * "layer identity → canonical child" — so building an order that already exists
+ * is a few lock-free map reads and allocates no wrapper graph.
+ * A layer's identity is its class for parameterless decorators (built through their
+ * (Coffee) constructor), or (class, config) for configured ones, so two different
+ * configurations of one decorator class never share a node.
+ * Each canonical node also caches its CompiledCoffee, so cost and description
+ * are computed once per combination, not once per order.
+ */
+class CoffeeInterner {
+    private static final CoffeeInterner SHARED = new CoffeeInterner();
+
+    // The (Coffee) constructor of each parameterless decorator class, looked up once
+    private static final ClassValue<Function<Coffee, CoffeeDecorator>> CONSTRUCTORS = new ClassValue<>() {
+        protected Function<Coffee, CoffeeDecorator> computeValue(Class<?> type) {
+            Constructor<? extends CoffeeDecorator> ctor;
+            try {
+                ctor = type.asSubclass(CoffeeDecorator.class).getDeclaredConstructor(Coffee.class);
+                ctor.setAccessible(true);
+            } catch (NoSuchMethodException e) {
+                throw new IllegalArgumentException(type.getName() + " has no (Coffee) constructor; use with(type, config, factory)", e);
+            }
+            return coffee -> {
+                try {
+                    return ctor.newInstance(coffee);
+                } catch (ReflectiveOperationException e) {
+                    throw new IllegalStateException("Can't create " + type.getName(), e);
+                }
+            };
+        }
+    };
+
+    private static final class Node {
+        final Coffee chain;            // canonical decorator stack
+        final CompiledCoffee compiled; // cached cost + description
+        final ConcurrentHashMap<Object, Node> children = new ConcurrentHashMap<>();
+
+        Node(Coffee chain, CompiledCoffee compiled) {
+            this.chain = chain;
+            this.compiled = compiled;
+        }
+    }
+
+    private final ConcurrentHashMap<Class<?>, Node> roots = new ConcurrentHashMap<>();
+    private final LongAdder combinations = new LongAdder();
+
+    public static CoffeeInterner shared() {
+        return SHARED;
+    }
+
+    // Start an order from a base coffee type
+    public <C extends Coffee> Builder start(Class<C> type, Supplier<C> factory) {
+        Node root = roots.get(type);
+        if (root == null) {
+            root = roots.computeIfAbsent(type, k -> {
+                Coffee base = factory.get();
+                combinations.increment();
+                return new Node(base, CoffeeCompiler.compile(base));
+            });
+        }
+        return new Builder(root);
+    }
+
+    public Builder basic() {
+        return start(BasicCoffee.class, BasicCoffee::new);
+    }
+
+    // Number of distinct canonical combinations created so far
+    public long size() {
+        return combinations.sum();
+    }
+
+    private Node child(Node parent, Object layer, Function<Coffee, ? extends CoffeeDecorator> factory) {
+        Node child = parent.children.get(layer);
+        if (child == null) {
+            child = parent.children.computeIfAbsent(layer, k -> {
+                combinations.increment();
+                // Wrapping the parent's compiled form folds the new layer in O(1)
+                return new Node(factory.apply(parent.chain), CoffeeCompiler.compile(factory.apply(parent.compiled)));
+            });
+        }
+        return child;
+    }
+
+    /**
+     * Fluent, canonicalizing builder: basic().milk().whip().build()
+     * Identical sequences of steps always return the same instance.
+     */
+    public final class Builder {
+        private Node node;
+
+        private Builder(Node node) {
+            this.node = node;
+        }
+
+        // Parameterless decorator: the class alone identifies the layer
+        public Builder with(Class<? extends CoffeeDecorator> type) {
+            node = child(node, type, CONSTRUCTORS.get(type));
+            return this;
+        }
+
+        // Configured decorator: config (compared with equals) must capture everything the
+        // factory varies on, because every equal (type, config) pair shares one node
+        public <D extends CoffeeDecorator> Builder with(Class<D> type, Object config, Function<Coffee, D> factory) {
+            node = child(node, List.of(type, config), factory);
+            return this;
+        }
+
+        public Builder milk() {
+            return with(MilkDecorator.class);
+        }
+
+        public Builder whip() {
+            return with(WhipDecorator.class);
+        }
+
+        // The shared, immutable order with cached cost and description
+        public CompiledCoffee build() {
+            return node.compiled;
+        }
+
+        // The shared decorator stack itself (don't modify it — it's shared by every identical order)
+        public Coffee buildChain() {
+            return node.chain;
+        }
+    }
+}
+
+/**
+ * 🧾 CoffeePricer
+ *
+ * Prices large batches of orders:
+ * - every order is priced in whole cents (long), so totals never drift
+ * - big batches are split across a fork/join pool; small ones run inline
+ * - returns each order's price plus the batch total
+ */
+class CoffeePricer {
+    // Result of pricing one batch
+    static final class PricedBatch {
+        private final long[] orderCents;
+        private final int size;
+        private final long totalCents;
+
+        PricedBatch(long[] orderCents, int size, long totalCents) {
+            this.orderCents = orderCents;
+            this.size = size;
+            this.totalCents = totalCents;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public long orderCents(int index) {
+            if (index >= size) {
+                throw new IndexOutOfBoundsException("order " + index + " of " + size);
+            }
+            return orderCents[index];
+        }
+
+        public long totalCents() {
+            return totalCents;
+        }
+
+        public String total() {
+            return formatCents(totalCents);
+        }
+    }
+
+    private final ForkJoinPool pool;
+    private final int threshold;
+
+    public CoffeePricer() {
+        this(ForkJoinPool.commonPool(), 16_384);
+    }
+
+    public CoffeePricer(ForkJoinPool pool, int threshold) {
+        if (threshold < 1) {
+            throw new IllegalArgumentException("threshold must be >= 1: " + threshold);
+        }
+        this.pool = pool;
+        this.threshold = threshold;
+    }
+
+    public PricedBatch price(Coffee[] orders) {
+        return price(orders, new long[orders.length]);
+    }
+
+    // Reuses the caller's buffer for per-order prices (must be at least orders.length long)
+    public PricedBatch price(Coffee[] orders, long[] cents) {
+        if (cents.length < orders.length) {
+            throw new IllegalArgumentException("cents buffer too small: " + cents.length + " < " + orders.length);
+        }
+        long total = orders.length <= threshold
+                ? priceRange(orders, cents, 0, orders.length)
+                : pool.invoke(new PriceTask(orders, cents, 0, orders.length, threshold));
+        return new PricedBatch(cents, orders.length, total);
+    }
+
+    // Aggregate only — for order streams that don't need per-order prices
+    public static long totalCents(Stream<? extends Coffee> orders) {
+        return orders.mapToLong(Coffee::getCostCents).sum();
+    }
+
+    public static String formatCents(long cents) {
+        String sign = cents < 0 ? "-" : "";
+        long abs = Math.abs(cents);
+        return String.format("%s$%d.%02d", sign, abs / 100, abs % 100);
+    }
+
+    private static long priceRange(Coffee[] orders, long[] cents, int from, int to) {
+        long total = 0;
+        for (int i = from; i < to; i++) {
+            long c = orders[i].getCostCents();
+            cents[i] = c;
+            total += c;
+        }
+        return total;
+    }
+
+    // Splits the range in halves until it is small enough to price directly
+    private static final class PriceTask extends RecursiveTask<Long> {
+        private static final long serialVersionUID = 1L;
+
+        private final Coffee[] orders;
+        private final long[] cents;
+        private final int from;
+        private final int to;
+        private final int threshold;
+
+        PriceTask(Coffee[] orders, long[] cents, int from, int to, int threshold) {
+            this.orders = orders;
+            this.cents = cents;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+        }
+
+        protected Long compute() {
+            if (to - from <= threshold) {
+                return priceRange(orders, cents, from, to);
+            }
+            int mid = (from + to) >>> 1;
+            PriceTask left = new PriceTask(orders, cents, from, mid, threshold);
+            left.fork();
+            long right = new PriceTask(orders, cents, mid, to, threshold).compute();
+            return left.join() + right;
+        }
     }
 }
 
@@ -87,6 +470,112 @@ public class Decorator {
 
         System.out.println("Order: " + myOrder.getDescription());
         System.out.println("Total: $" + myOrder.getCost());
+
+        // Flatten the finished stack once; later calls are plain field reads
+        Coffee compiled = CoffeeCompiler.compile(myOrder);
+        System.out.println("Compiled order: " + compiled.getDescription());
+        System.out.println("Compiled total: $" + compiled.getCost());
+
+        // Identical orders share one canonical instance
+        Coffee order1 = CoffeeInterner.shared().basic().milk().whip().build();
+        Coffee order2 = CoffeeInterner.shared().basic().milk().whip().build();
+        System.out.println("Same canonical order? " + (order1 == order2) + " → " + order1.getDescription());
+
+        // Price a batch in exact cents
+        Coffee[] batch = {order1, order2, CoffeeInterner.shared().basic().milk().build(), myOrder};
+        CoffeePricer.PricedBatch priced = new CoffeePricer().price(batch);
+        System.out.println("Batch of " + priced.size() + " orders: " + priced.total());
+    }
+}
+
+/**
+ * ⏱️ DecoratorBenchmark
+ *
+ * Compares getCost() + getDescription() on a live decorator chain
+ * with the compiled form, for chain depths 1 to 1000.
+ *
+ * Run: java DecoratorBenchmark
+ */
+class DecoratorBenchmark {
+    static volatile long sink;
+
+    public static void main(String[] args) {
+        int[] depths = {1, 10, 100, 1000};
+        for (int round = 0; round < 2; round++) {  // first round warms up the JIT
+            for (int depth : depths) {
+                Coffee chain = new BasicCoffee();
+                for (int i = 0; i < depth; i++) {
+                    chain = (i % 2 == 0) ? new MilkDecorator(chain) : new WhipDecorator(chain);
+                }
+                Coffee compiled = CoffeeCompiler.compile(chain);
+                if (compiled.getCost() != chain.getCost() || !compiled.getDescription().equals(chain.getDescription())) {
+                    throw new AssertionError("compiled coffee differs at depth " + depth);
+                }
+
+                int calls = Math.max(200, 2_000_000 / (depth * depth / 10 + depth));
+                System.out.printf("depth %4d: chain %,12.1f ns/call   compiled %,8.1f ns/call%n",
+                        depth, time(chain, calls), time(compiled, calls * 10));
+            }
+            System.out.println();
+        }
+    }
+
+    private static double time(Coffee coffee, int calls) {
+        long acc = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < calls; i++) {
+            acc += (long) coffee.getCost() + coffee.getDescription().length();
+        }
+        long elapsed = System.nanoTime() - start;
+        sink += acc;
+        return (double) elapsed / calls;
     }
 }
 
+/**
+ * ⏱️ PricingBenchmark
+ *
+ * Scalar double loop vs CoffeePricer over a few million canonical orders.
+ * The batch side fills a per-order price column as well, so it gains most
+ * from the fork/join split on multi-core machines.
+ *
+ * Run: java PricingBenchmark [orders]
+ */
+class PricingBenchmark {
+    static volatile double sink;
+
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 5_000_000;
+        CoffeeInterner interner = CoffeeInterner.shared();
+        Coffee[] menu = {
+            interner.basic().build(),
+            interner.basic().milk().build(),
+            interner.basic().whip().build(),
+            interner.basic().milk().whip().build(),
+            interner.basic().milk().milk().whip().build(),
+        };
+        Coffee[] orders = new Coffee[n];
+        for (int i = 0; i < n; i++) {
+            orders[i] = menu[(i * 31) % menu.length];
+        }
+
+        CoffeePricer pricer = new CoffeePricer();
+        long[] cents = new long[n];
+        for (int round = 0; round < 5; round++) {  // first rounds warm up the JIT
+            long start = System.nanoTime();
+            double scalar = 0;
+            for (Coffee order : orders) {
+                scalar += order.getCost();
+            }
+            long scalarNs = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            CoffeePricer.PricedBatch batch = pricer.price(orders, cents);
+            long batchNs = System.nanoTime() - start;
+
+            sink += scalar;
+            System.out.printf("%d cores: scalar %6.1f M orders/s (total %.6f)   batch %6.1f M orders/s (total %s)%n",
+                    Runtime.getRuntime().availableProcessors(), n * 1e3 / scalarNs, scalar, n * 1e3 / batchNs, batch.total());
+        }
+    }
+}
@@ -16,7 +16,24 @@
  * - Useful when creating **lots of small immutable objects**
  */
 
-import java.util.HashMap;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
 
 
 interface Tree {
@@ -34,26 +51,920 @@ class TreeType implements Tree {
         this.texture = texture;
     }
 
+    public String getName() {
+        return name;
+    }
+
+    public String getColor() {
+        return color;
+    }
+
+    public String getTexture() {
+        return texture;
+    }
+
     public void display(int x, int y) {
         System.out.println("Displaying " + name + " tree at (" + x + ", " + y + ") with color " + color);
     }
 }
 
+/**
+ * 🔑 TreeKey
+ *
+ * Composite (name, color, texture) key — no String concatenation needed.
+ * Keys stored in the cache are never changed; a per-thread "probe" key is
+ * reused for lookups so a cache hit does not allocate anything.
+ */
+final class TreeKey {
+    String name;
+    String color;
+    String texture;
+    private int hash;
+
+    TreeKey(String name, String color, String texture) {
+        set(name, color, texture);
+    }
+
+    TreeKey set(String name, String color, String texture) {
+        this.name = name;
+        this.color = color;
+        this.texture = texture;
+        this.hash = (name.hashCode() * 31 + color.hashCode()) * 31 + texture.hashCode();
+        return this;
+    }
+
+    TreeKey copy() {
+        return new TreeKey(name, color, texture);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof TreeKey)) return false;
+        TreeKey k = (TreeKey) o;
+        return hash == k.hash && name.equals(k.name) && color.equals(k.color) && texture.equals(k.texture);
+    }
+
+    @Override
+    public String toString() {
+        return name + "-" + color + "-" + texture;
+    }
+}
+
+/**
+ * 🗄️ TreeCache
+ *
+ * Thread-safe flyweight cache:
+ * - Hits are a lock-free map read
+ * - Misses create the TreeType exactly once (atomic create-if-absent)
+ * - Optional size bound: when full, a "clock" sweep evicts a type that
+ *   has not been used since the hand last passed it
+ * - Hit / miss / eviction counters to help size the cache
+ */
+class TreeCache {
+    // A cached flyweight plus its "recently used" bit for the clock sweep
+    private static final class Entry {
+        final TreeType tree;
+        volatile boolean referenced;
+
+        Entry(TreeType tree) {
+            this.tree = tree;
+        }
+    }
+
+    private final ConcurrentHashMap<TreeKey, Entry> entries = new ConcurrentHashMap<>();
+    private final ThreadLocal<TreeKey> probe = ThreadLocal.withInitial(() -> new TreeKey("", "", ""));
+    private final Function<TreeKey, TreeType> loader;
+    private final int maxSize;  // 0 = unbounded
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private Iterator<Map.Entry<TreeKey, Entry>> clockHand;  // guarded by "this"
+
+    public TreeCache(int maxSize, Function<TreeKey, TreeType> loader) {
+        if (maxSize < 0) {
+            throw new IllegalArgumentException("maxSize must be >= 0: " + maxSize);
+        }
+        this.maxSize = maxSize;
+        this.loader = loader;
+    }
+
+    public TreeType get(String name, String color, String texture) {
+        TreeKey key = probe.get().set(name, color, texture);
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            hits.increment();
+            if (!entry.referenced) {
+                entry.referenced = true;  // only write when needed, to keep the cache line shared
+            }
+            return entry.tree;
+        }
+
+        misses.increment();
+        entry = entries.computeIfAbsent(key.copy(), k -> new Entry(loader.apply(k)));
+        if (maxSize > 0 && entries.size() > maxSize) {
+            evict();
+        }
+        return entry.tree;
+    }
+
+    // Clock sweep: give recently used types a second chance, evict the first one that isn't
+    private synchronized void evict() {
+        while (entries.size() > maxSize) {
+            if (clockHand == null || !clockHand.hasNext()) {
+                clockHand = entries.entrySet().iterator();
+                if (!clockHand.hasNext()) {
+                    return;
+                }
+            }
+            Map.Entry<TreeKey, Entry> candidate = clockHand.next();
+            Entry entry = candidate.getValue();
+            if (entry.referenced) {
+                entry.referenced = false;
+            } else if (entries.remove(candidate.getKey(), entry)) {
+                evictions.increment();
+            }
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    public double hitRate() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return total == 0 ? 1.0 : (double) h / total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("TreeCache[size=%d, hits=%d, misses=%d, evictions=%d, hitRate=%.3f]",
+                size(), hitCount(), missCount(), evictionCount(), hitRate());
+    }
+}
+
 class TreeFactory {
-    private static final HashMap<String, Tree> treeMap = new HashMap<>();
+    private static final TreeCache treeCache = new TreeCache(0, key -> {
+        System.out.println("Created new TreeType: " + key);
+        return new TreeType(key.name, key.color, key.texture);
+    });
 
     public static Tree getTree(String name, String color, String texture) {
-        String key = name + "-" + color + "-" + texture;
-        if (!treeMap.containsKey(key)) {
-            treeMap.put(key, new TreeType(name, color, texture));
-            System.out.println("Created new TreeType: " + key);
+        return treeCache.get(name, color, texture);
+    }
+
+    // Same flyweight, typed for containers that store TreeType ids (see Forest)
+    public static TreeType getTreeType(String name, String color, String texture) {
+        return treeCache.get(name, color, texture);
+    }
+
+    public static TreeCache cache() {
+        return treeCache;
+    }
+}
+
+/**
+ * 🌲 Forest
+ *
+ * Stores extrinsic state (positions) for millions of trees without one object per tree:
+ * - Placements live in primitive columns: int x[], int y[], short typeId[]
+ * - typeId is an index into a small table of shared TreeType flyweights
+ * - Iteration can be grouped by type (all pines, then all birches, ...)
+ *
+ * Not thread-safe: build it on one thread, then share it read-only.
+ */
+class Forest {
+    // Callback for bulk iteration — avoids creating an object per placement
+    interface PlacementVisitor {
+        void visit(TreeType type, int x, int y);
+    }
+
+    private static final int MAX_TYPES = 1 << 16;  // typeId is stored as an unsigned short
+
+    private final List<TreeType> types = new ArrayList<>();
+    private final Map<TreeType, Integer> typeIds = new IdentityHashMap<>();
+
+    private int[] xs;
+    private int[] ys;
+    private short[] typeOf;
+    private int size;
+
+    // Placement indices sorted by type, built lazily for grouped iteration
+    private int[] groupedOrder;
+    private int[] groupStarts;
+
+    public Forest() {
+        this(1024);
+    }
+
+    public Forest(int initialCapacity) {
+        int capacity = Math.max(initialCapacity, 16);
+        xs = new int[capacity];
+        ys = new int[capacity];
+        typeOf = new short[capacity];
+    }
+
+    // Returns the compact id of a flyweight, registering it on first use
+    public int typeId(TreeType type) {
+        Integer id = typeIds.get(type);
+        if (id == null) {
+            if (types.size() == MAX_TYPES) {
+                throw new IllegalStateException("Forest supports at most " + MAX_TYPES + " tree types");
+            }
+            id = types.size();
+            types.add(type);
+            typeIds.put(type, id);
         }
-        return treeMap.get(key);
+        return id;
+    }
+
+    public TreeType type(int typeId) {
+        return types.get(typeId);
+    }
+
+    public int typeCount() {
+        return types.size();
+    }
+
+    public void plant(int x, int y, TreeType type) {
+        int id = typeId(type);
+        ensureCapacity(size + 1);
+        xs[size] = x;
+        ys[size] = y;
+        typeOf[size] = (short) id;
+        size++;
+        groupedOrder = null;
+    }
+
+    // Bulk add: many placements of the same type in one call
+    public void plantAll(int[] x, int[] y, TreeType type) {
+        if (x.length != y.length) {
+            throw new IllegalArgumentException("x and y must have the same length");
+        }
+        short id = (short) typeId(type);
+        int n = x.length;
+        ensureCapacity(size + n);
+        System.arraycopy(x, 0, xs, size, n);
+        System.arraycopy(y, 0, ys, size, n);
+        Arrays.fill(typeOf, size, size + n, id);
+        size += n;
+        groupedOrder = null;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int x(int index) {
+        return xs[index];
+    }
+
+    public int y(int index) {
+        return ys[index];
+    }
+
+    public int typeIdAt(int index) {
+        return typeOf[index] & 0xFFFF;
+    }
+
+    public TreeType typeAt(int index) {
+        return types.get(typeOf[index] & 0xFFFF);
+    }
+
+    // Visit every placement in insertion order
+    public void forEach(PlacementVisitor visitor) {
+        for (int i = 0; i < size; i++) {
+            visitor.visit(types.get(typeOf[i] & 0xFFFF), xs[i], ys[i]);
+        }
+    }
+
+    // Visit placements grouped by type: one flyweight stays "hot" while its trees are drawn
+    public void forEachByType(PlacementVisitor visitor) {
+        buildGroups();
+        for (int t = 0; t < types.size(); t++) {
+            visitGroup(t, visitor);
+        }
+    }
+
+    // Visit only the placements of one type
+    public void forEachOfType(TreeType type, PlacementVisitor visitor) {
+        Integer id = typeIds.get(type);
+        if (id != null) {
+            buildGroups();
+            visitGroup(id, visitor);
+        }
+    }
+
+    public void display() {
+        forEachByType((type, x, y) -> type.display(x, y));
+    }
+
+    private void visitGroup(int typeId, PlacementVisitor visitor) {
+        TreeType type = types.get(typeId);
+        for (int k = groupStarts[typeId]; k < groupStarts[typeId + 1]; k++) {
+            int i = groupedOrder[k];
+            visitor.visit(type, xs[i], ys[i]);
+        }
+    }
+
+    // Counting sort of placement indices by typeId — O(size + typeCount)
+    private void buildGroups() {
+        if (groupedOrder != null) {
+            return;
+        }
+        int typeCount = types.size();
+        int[] starts = new int[typeCount + 1];
+        for (int i = 0; i < size; i++) {
+            starts[(typeOf[i] & 0xFFFF) + 1]++;
+        }
+        for (int t = 0; t < typeCount; t++) {
+            starts[t + 1] += starts[t];
+        }
+        int[] next = Arrays.copyOf(starts, typeCount);
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++) {
+            order[next[typeOf[i] & 0xFFFF]++] = i;
+        }
+        groupStarts = starts;
+        groupedOrder = order;
+    }
+
+    private void ensureCapacity(int needed) {
+        if (needed > xs.length) {
+            int capacity = Math.max(needed, xs.length + (xs.length >> 1));
+            xs = Arrays.copyOf(xs, capacity);
+            ys = Arrays.copyOf(ys, capacity);
+            typeOf = Arrays.copyOf(typeOf, capacity);
+        }
+    }
+
+    public void trimToSize() {
+        xs = Arrays.copyOf(xs, size);
+        ys = Arrays.copyOf(ys, size);
+        typeOf = Arrays.copyOf(typeOf, size);
+    }
+
+    // Bytes of column storage per placement: x (4) + y (4) + typeId (2)
+    public static int bytesPerPlacement() {
+        return Integer.BYTES + Integer.BYTES + Short.BYTES;
+    }
+
+    // Approximate heap used by the placement columns (including spare capacity and the grouping index)
+    public long memoryFootprint() {
+        long bytes = (long) xs.length * bytesPerPlacement();
+        if (groupedOrder != null) {
+            bytes += (long) groupedOrder.length * Integer.BYTES + (long) groupStarts.length * Integer.BYTES;
+        }
+        return bytes;
+    }
+
+    public double bytesPerTree() {
+        return size == 0 ? 0 : (double) memoryFootprint() / size;
+    }
+}
+
+/**
+ * 🗺️ ForestGrid
+ *
+ * Uniform-grid spatial index over a Forest's placements.
+ * The world is cut into square cells; each cell lists the placement indices inside it.
+ * A viewport query only looks at the cells it overlaps, so drawing a frame costs
+ * "trees on screen", not "trees in the world".
+ * Cells live in a long-keyed open-addressing map (no boxing), and queries are clamped to
+ * the occupied cells, so a huge range over a sparse grid doesn't probe empty space.
+ *
+ * Not thread-safe, like Forest.
+ */
+class ForestGrid {
+    // Growable list of placement indices in one cell
+    private static final class Cell {
+        int[] items;
+        int count;
+
+        Cell(int capacity) {
+            items = new int[Math.max(capacity, 4)];
+        }
+
+        void add(int index) {
+            if (count == items.length) {
+                items = Arrays.copyOf(items, count * 2);
+            }
+            items[count++] = index;
+        }
+
+        boolean remove(int index) {
+            for (int i = 0; i < count; i++) {
+                if (items[i] == index) {
+                    items[i] = items[--count];  // order inside a cell doesn't matter
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    // Open-addressing map from packed (cx, cy) to Cell — no boxed Long per probe
+    private static final class CellMap {
+        private long[] keys = new long[16];
+        private Cell[] values = new Cell[16];  // null = empty slot
+        private int size;
+
+        Cell get(long key) {
+            int mask = keys.length - 1;
+            for (int i = slot(key, mask); values[i] != null; i = (i + 1) & mask) {
+                if (keys[i] == key) {
+                    return values[i];
+                }
+            }
+            return null;
+        }
+
+        void put(long key, Cell cell) {
+            if ((size + 1) * 2 > keys.length) {
+                resize(keys.length * 2);
+            }
+            int mask = keys.length - 1;
+            int i = slot(key, mask);
+            while (values[i] != null && keys[i] != key) {
+                i = (i + 1) & mask;
+            }
+            if (values[i] == null) {
+                size++;
+            }
+            keys[i] = key;
+            values[i] = cell;
+        }
+
+        // Backward-shift deletion keeps probe chains intact without tombstones
+        void remove(long key) {
+            int mask = keys.length - 1;
+            int i = slot(key, mask);
+            while (values[i] != null && keys[i] != key) {
+                i = (i + 1) & mask;
+            }
+            if (values[i] == null) {
+                return;
+            }
+            size--;
+            int gap = i;
+            for (int j = (gap + 1) & mask; values[j] != null; j = (j + 1) & mask) {
+                int home = slot(keys[j], mask);
+                if (((j - home) & mask) >= ((j - gap) & mask)) {  // moving j into the gap keeps it reachable
+                    keys[gap] = keys[j];
+                    values[gap] = values[j];
+                    gap = j;
+                }
+            }
+            values[gap] = null;
+        }
+
+        void clear() {
+            keys = new long[16];
+            values = new Cell[16];
+            size = 0;
+        }
+
+        int size() {
+            return size;
+        }
+
+        long keyAt(int slot) {
+            return keys[slot];
+        }
+
+        Cell valueAt(int slot) {
+            return values[slot];
+        }
+
+        int capacity() {
+            return keys.length;
+        }
+
+        private void resize(int capacity) {
+            long[] oldKeys = keys;
+            Cell[] oldValues = values;
+            keys = new long[capacity];
+            values = new Cell[capacity];
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldValues[i] != null) {
+                    put(oldKeys[i], oldValues[i]);
+                }
+            }
+        }
+
+        private static int slot(long key, int mask) {
+            return (int) ((key * 0x9E3779B97F4A7C15L) >>> 40) & mask;
+        }
+    }
+
+    private final Forest forest;
+    private final int cellSize;
+    private final CellMap cells = new CellMap();
+    private int size;
+    // Bounds of every cell that has held a placement; queries never look outside them
+    private int minCellX = Integer.MAX_VALUE;
+    private int maxCellX = Integer.MIN_VALUE;
+    private int minCellY = Integer.MAX_VALUE;
+    private int maxCellY = Integer.MIN_VALUE;
+
+    public ForestGrid(Forest forest, int cellSize) {
+        if (cellSize <= 0) {
+            throw new IllegalArgumentException("cellSize must be > 0: " + cellSize);
+        }
+        this.forest = forest;
+        this.cellSize = cellSize;
+    }
+
+    // Index every placement of the forest, sizing each cell exactly (two passes, no regrowth)
+    public void bulkLoad() {
+        cells.clear();
+        minCellX = minCellY = Integer.MAX_VALUE;
+        maxCellX = maxCellY = Integer.MIN_VALUE;
+        for (int i = 0; i < forest.size(); i++) {
+            Cell cell = cellFor(forest.x(i), forest.y(i));
+            cell.count++;  // first pass only counts
+        }
+        for (int slot = 0; slot < cells.capacity(); slot++) {
+            Cell cell = cells.valueAt(slot);
+            if (cell != null) {
+                cell.items = new int[Math.max(cell.count, 4)];
+                cell.count = 0;
+            }
+        }
+        for (int i = 0; i < forest.size(); i++) {
+            cells.get(cellKey(forest.x(i), forest.y(i))).add(i);
+        }
+        size = forest.size();
+    }
+
+    // Index one placement (e.g. right after Forest.plant)
+    public void insert(int index) {
+        cellFor(forest.x(index), forest.y(index)).add(index);
+        size++;
+    }
+
+    // Stop indexing one placement; returns false if it wasn't indexed
+    public boolean remove(int index) {
+        long key = cellKey(forest.x(index), forest.y(index));
+        Cell cell = cells.get(key);
+        if (cell == null || !cell.remove(index)) {
+            return false;
+        }
+        if (cell.count == 0) {
+            cells.remove(key);
+        }
+        size--;
+        return true;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Visit every indexed placement with minX <= x <= maxX and minY <= y <= maxY
+    public void query(int minX, int minY, int maxX, int maxY, Forest.PlacementVisitor visitor) {
+        if (minX > maxX || minY > maxY || cells.size() == 0) {
+            return;
+        }
+        // Clamp to occupied cells; long loop counters so the last int cell can't wrap around
+        long minCx = Math.max(Math.floorDiv(minX, cellSize), minCellX);
+        long maxCx = Math.min(Math.floorDiv(maxX, cellSize), maxCellX);
+        long minCy = Math.max(Math.floorDiv(minY, cellSize), minCellY);
+        long maxCy = Math.min(Math.floorDiv(maxY, cellSize), maxCellY);
+        if (minCx > maxCx || minCy > maxCy) {
+            return;
+        }
+        long width = maxCx - minCx + 1;
+        long height = maxCy - minCy + 1;
+        int occupied = cells.size();
+        if (width > occupied || height > occupied || width * height > occupied) {  // checked so the product can't overflow
+            // Sparse grid, big range: walking the occupied cells is cheaper than probing empty ones
+            for (int slot = 0; slot < cells.capacity(); slot++) {
+                Cell cell = cells.valueAt(slot);
+                if (cell != null) {
+                    long key = cells.keyAt(slot);
+                    int cx = (int) (key >> 32);
+                    int cy = (int) key;
+                    if (cx >= minCx && cx <= maxCx && cy >= minCy && cy <= maxCy) {
+                        visitCell(cell, minX, minY, maxX, maxY, false, visitor);
+                    }
+                }
+            }
+            return;
+        }
+        for (long cx = minCx; cx <= maxCx; cx++) {
+            for (long cy = minCy; cy <= maxCy; cy++) {
+                Cell cell = cells.get(key((int) cx, (int) cy));
+                if (cell != null) {
+                    // Only border cells need the exact bounds test
+                    boolean inner = cx > minCx && cx < maxCx && cy > minCy && cy < maxCy;
+                    visitCell(cell, minX, minY, maxX, maxY, inner, visitor);
+                }
+            }
+        }
+    }
+
+    private void visitCell(Cell cell, int minX, int minY, int maxX, int maxY, boolean inner,
+                           Forest.PlacementVisitor visitor) {
+        for (int k = 0; k < cell.count; k++) {
+            int i = cell.items[k];
+            int x = forest.x(i);
+            int y = forest.y(i);
+            if (inner || (x >= minX && x <= maxX && y >= minY && y <= maxY)) {
+                visitor.visit(forest.typeAt(i), x, y);
+            }
+        }
+    }
+
+    public int count(int minX, int minY, int maxX, int maxY) {
+        int[] count = new int[1];
+        query(minX, minY, maxX, maxY, (type, x, y) -> count[0]++);
+        return count[0];
+    }
+
+    // Draw only what is visible in a width x height viewport at (left, top)
+    public void displayViewport(int left, int top, int width, int height) {
+        if (width <= 0 || height <= 0) {
+            return;
+        }
+        int right = (int) Math.min((long) left + width - 1, Integer.MAX_VALUE);
+        int bottom = (int) Math.min((long) top + height - 1, Integer.MAX_VALUE);
+        query(left, top, right, bottom, (type, x, y) -> type.display(x, y));
+    }
+
+    // The cell holding (x, y), created (and added to the occupied bounds) if needed
+    private Cell cellFor(int x, int y) {
+        int cx = Math.floorDiv(x, cellSize);
+        int cy = Math.floorDiv(y, cellSize);
+        long key = key(cx, cy);
+        Cell cell = cells.get(key);
+        if (cell == null) {
+            cell = new Cell(4);
+            cells.put(key, cell);
+            minCellX = Math.min(minCellX, cx);
+            maxCellX = Math.max(maxCellX, cx);
+            minCellY = Math.min(minCellY, cy);
+            maxCellY = Math.max(maxCellY, cy);
+        }
+        return cell;
+    }
+
+    private long cellKey(int x, int y) {
+        return key(Math.floorDiv(x, cellSize), Math.floorDiv(y, cellSize));
+    }
+
+    private static long key(int cx, int cy) {
+        return ((long) cx << 32) | (cy & 0xFFFFFFFFL);
+    }
+}
+
+/**
+ * 💾 ForestFile
+ *
+ * Saves a Forest to a compact binary file and reopens it memory-mapped.
+ *
+ * Layout (little-endian):
+ *   header   magic "FRST", version, typeCount, size, typeTableBytes, padding
+ *   types    typeCount x (name, color, texture), each a length-prefixed UTF-8 string
+ *   columns  int x[size], int y[size], short typeId[size] — each starting 8-byte aligned
+ *
+ * Opening a file only reads the header and the (small) type table;
+ * placements are read straight out of the mapped pages on demand.
+ */
+class ForestFile {
+    static final int MAGIC = 0x54535246;  // "FRST"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 24;
+
+    public static void save(Forest forest, Path file) throws IOException {
+        ByteBuffer table = encodeTypes(forest);
+        int size = forest.size();
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(VERSION).putInt(forest.typeCount()).putInt(size).putInt(table.remaining());
+            header.clear();
+            writeFully(ch, header);
+            writeFully(ch, table);
+
+            ByteBuffer buf = ByteBuffer.allocateDirect(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+            long pos = align8(HEADER_BYTES + table.capacity());
+            ch.position(pos);
+            for (int i = 0; i < size; i++) {
+                if (buf.remaining() < Integer.BYTES) flush(ch, buf);
+                buf.putInt(forest.x(i));
+            }
+            flush(ch, buf);
+            ch.position(pos = align8(pos + (long) size * Integer.BYTES));
+            for (int i = 0; i < size; i++) {
+                if (buf.remaining() < Integer.BYTES) flush(ch, buf);
+                buf.putInt(forest.y(i));
+            }
+            flush(ch, buf);
+            ch.position(pos = align8(pos + (long) size * Integer.BYTES));
+            for (int i = 0; i < size; i++) {
+                if (buf.remaining() < Short.BYTES) flush(ch, buf);
+                buf.putShort((short) forest.typeIdAt(i));
+            }
+            flush(ch, buf);
+        }
+    }
+
+    public static MappedForest open(Path file) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            readFully(ch, header, 0);
+            header.flip();
+            if (header.getInt() != MAGIC) {
+                throw new IOException("Not a forest file: " + file);
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported forest file version " + version + ": " + file);
+            }
+            int typeCount = header.getInt();
+            int size = header.getInt();
+            int tableBytes = header.getInt();
+
+            ByteBuffer table = ByteBuffer.allocate(tableBytes).order(ByteOrder.LITTLE_ENDIAN);
+            readFully(ch, table, HEADER_BYTES);
+            table.flip();
+            TreeType[] types = new TreeType[typeCount];
+            for (int t = 0; t < typeCount; t++) {
+                // Re-intern through the factory so reopened forests share the live flyweights
+                types[t] = TreeFactory.getTreeType(readString(table), readString(table), readString(table));
+            }
+
+            long xPos = align8(HEADER_BYTES + tableBytes);
+            long yPos = align8(xPos + (long) size * Integer.BYTES);
+            long idPos = align8(yPos + (long) size * Integer.BYTES);
+            if (ch.size() < idPos + (long) size * Short.BYTES) {
+                throw new IOException("Truncated forest file: " + file);
+            }
+            return new MappedForest(types, size,
+                    map(ch, xPos, size, Integer.BYTES),
+                    map(ch, yPos, size, Integer.BYTES),
+                    map(ch, idPos, size, Short.BYTES));
+        }
+    }
+
+    // Columns can exceed 2 GB, so each one is mapped as a series of fixed-size segments
+    private static MappedByteBuffer[] map(FileChannel ch, long pos, int count, int elementBytes) throws IOException {
+        int segments = (int) (((long) count + MappedForest.SEGMENT_MASK) >>> MappedForest.SEGMENT_SHIFT);
+        MappedByteBuffer[] maps = new MappedByteBuffer[Math.max(segments, 1)];
+        for (int s = 0; s < maps.length; s++) {
+            long first = (long) s << MappedForest.SEGMENT_SHIFT;
+            long elements = Math.min(count - first, 1L << MappedForest.SEGMENT_SHIFT);
+            maps[s] = ch.map(FileChannel.MapMode.READ_ONLY, pos + first * elementBytes, Math.max(elements, 0) * elementBytes);
+            maps[s].order(ByteOrder.LITTLE_ENDIAN);
+        }
+        return maps;
+    }
+
+    private static ByteBuffer encodeTypes(Forest forest) {
+        List<byte[]> parts = new ArrayList<>();
+        int bytes = 0;
+        for (int t = 0; t < forest.typeCount(); t++) {
+            TreeType type = forest.type(t);
+            for (String field : new String[] {type.getName(), type.getColor(), type.getTexture()}) {
+                byte[] utf8 = field.getBytes(StandardCharsets.UTF_8);
+                parts.add(utf8);
+                bytes += Integer.BYTES + utf8.length;
+            }
+        }
+        ByteBuffer table = ByteBuffer.allocate(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        for (byte[] utf8 : parts) {
+            table.putInt(utf8.length).put(utf8);
+        }
+        return table.flip();
+    }
+
+    private static String readString(ByteBuffer buf) {
+        byte[] utf8 = new byte[buf.getInt()];
+        buf.get(utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    private static long align8(long pos) {
+        return (pos + 7) & ~7L;
+    }
+
+    private static void flush(FileChannel ch, ByteBuffer buf) throws IOException {
+        buf.flip();
+        writeFully(ch, buf);
+        buf.clear();
+    }
+
+    private static void writeFully(FileChannel ch, ByteBuffer buf) throws IOException {
+        while (buf.hasRemaining()) {
+            ch.write(buf);
+        }
+    }
+
+    private static void readFully(FileChannel ch, ByteBuffer buf, long pos) throws IOException {
+        while (buf.hasRemaining()) {
+            if (ch.read(buf, pos + buf.position()) < 0) {
+                throw new IOException("Unexpected end of forest file");
+            }
+        }
+    }
+}
+
+/**
+ * 🗺️ MappedForest
+ *
+ * Read-only view of a saved Forest. Placements stay in the mapped file —
+ * x(i), y(i) and typeAt(i) read the pages directly, nothing is deserialized.
+ * Safe to read from many threads.
+ */
+class MappedForest {
+    static final int SEGMENT_SHIFT = 28;  // 2^28 elements per mapped segment (1 GB of ints)
+    static final int SEGMENT_MASK = (1 << SEGMENT_SHIFT) - 1;
+
+    private final TreeType[] types;
+    private final int size;
+    private final MappedByteBuffer[] xs;
+    private final MappedByteBuffer[] ys;
+    private final MappedByteBuffer[] typeIds;
+
+    MappedForest(TreeType[] types, int size, MappedByteBuffer[] xs, MappedByteBuffer[] ys, MappedByteBuffer[] typeIds) {
+        this.types = types;
+        this.size = size;
+        this.xs = xs;
+        this.ys = ys;
+        this.typeIds = typeIds;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int typeCount() {
+        return types.length;
+    }
+
+    public TreeType type(int typeId) {
+        return types[typeId];
+    }
+
+    public int x(int index) {
+        return xs[index >>> SEGMENT_SHIFT].getInt((index & SEGMENT_MASK) << 2);
+    }
+
+    public int y(int index) {
+        return ys[index >>> SEGMENT_SHIFT].getInt((index & SEGMENT_MASK) << 2);
+    }
+
+    public int typeIdAt(int index) {
+        return typeIds[index >>> SEGMENT_SHIFT].getShort((index & SEGMENT_MASK) << 1) & 0xFFFF;
+    }
+
+    public TreeType typeAt(int index) {
+        return types[typeIdAt(index)];
+    }
+
+    public void forEach(Forest.PlacementVisitor visitor) {
+        for (int i = 0; i < size; i++) {
+            visitor.visit(typeAt(i), x(i), y(i));
+        }
+    }
+
+    // Copy into an editable heap Forest (e.g. to add trees or build a ForestGrid)
+    public Forest toForest() {
+        Forest forest = new Forest(size);
+        for (int t = 0; t < types.length; t++) {
+            forest.typeId(types[t]);
+        }
+        for (int i = 0; i < size; i++) {
+            forest.plant(x(i), y(i), typeAt(i));
+        }
+        return forest;
     }
 }
 
 public class Flyweight {
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
         Tree pine = TreeFactory.getTree("Pine", "Green", "Rough");
         pine.display(10, 20);
 
@@ -62,5 +973,37 @@ public class Flyweight {
 
         Tree birch = TreeFactory.getTree("Birch", "White", "Smooth");
         birch.display(30, 40);
+
+        System.out.println(TreeFactory.cache());
+
+        // Many trees, few objects: positions go into primitive columns
+        TreeType pineType = TreeFactory.getTreeType("Pine", "Green", "Rough");
+        TreeType birchType = TreeFactory.getTreeType("Birch", "White", "Smooth");
+
+        Forest forest = new Forest();
+        forest.plant(50, 60, pineType);
+        forest.plant(70, 80, birchType);
+        forest.plantAll(new int[] {1, 2, 3}, new int[] {4, 5, 6}, pineType);
+        forest.trimToSize();
+        forest.display();
+        System.out.printf("Forest: %d trees, %d types, %.1f bytes/tree%n",
+                forest.size(), forest.typeCount(), forest.bytesPerTree());
+
+        // Only trees inside the viewport are touched
+        ForestGrid grid = new ForestGrid(forest, 32);
+        grid.bulkLoad();
+        System.out.println("Viewport (0,0) 40x40:");
+        grid.displayViewport(0, 0, 40, 40);
+
+        // Save once, then reopen memory-mapped instead of rebuilding the world
+        Path file = Files.createTempFile("forest", ".bin");
+        try {
+            ForestFile.save(forest, file);
+            MappedForest reopened = ForestFile.open(file);
+            System.out.println("Reopened " + reopened.size() + " trees from " + Files.size(file) + " bytes:");
+            reopened.forEach((type, x, y) -> type.display(x, y));
+        } finally {
+            Files.deleteIfExists(file);
+        }
     }
 }